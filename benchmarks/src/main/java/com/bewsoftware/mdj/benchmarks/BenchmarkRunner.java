@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, taking the same options as the JMH command line.
+ * <p>
+ * The GC profiler is always added, so that each result also reports the
+ * bytes allocated per operation: {@code gc.alloc.rate.norm}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public final class BenchmarkRunner
+{
+    private BenchmarkRunner()
+    {
+    }
+
+    public static void main(final String[] args)
+            throws CommandLineOptionException, IOException, RunnerException
+    {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers())
+        {
+            Main.main(args);
+        } else
+        {
+            new Runner(new OptionsBuilder()
+                    .parent(commandLine)
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.benchmarks;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.engine.Engine;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The whole conversion, from markdown to HTML, of each corpus.
+ * <p>
+ * Each operation converts every document of the corpus once.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConvertBenchmark
+{
+    @Param(
+            {
+                "gfm_spec.txt", "dingus.txt", Corpus.MARKDOWN_TEST
+            })
+    public String corpus;
+
+    private List<String> documents;
+
+    private double megabytes;
+
+    @Benchmark
+    public void convert(final Blackhole blackhole, final Throughput throughput)
+    {
+        for (final String document : documents)
+        {
+            blackhole.consume(MarkdownProcessor.convert(document));
+        }
+
+        throughput.megabytes += megabytes;
+    }
+
+    @Benchmark
+    public void convertBlocks(final Blackhole blackhole, final Throughput throughput)
+    {
+        for (final String document : documents)
+        {
+            blackhole.consume(MarkdownProcessor.convert(document, Engine.BLOCKS));
+        }
+
+        throughput.megabytes += megabytes;
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        documents = Corpus.load(corpus);
+        megabytes = Corpus.megabytes(documents);
+    }
+}
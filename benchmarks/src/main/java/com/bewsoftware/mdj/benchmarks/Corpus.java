@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.benchmarks;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The markdown documents the benchmarks are run over.
+ * <p>
+ * These are the test resources of the library itself, which the build
+ * copies into the {@code corpus} directory of the benchmarks jar. A corpus
+ * is either a single file, such as {@code gfm_spec.txt}, or a directory,
+ * such as {@value #MARKDOWN_TEST}, of which every {@code .text} file is a
+ * document.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public final class Corpus
+{
+    /**
+     * The MarkdownTest suite.
+     */
+    public static final String MARKDOWN_TEST = "MarkdownTest";
+
+    private static final double BYTES_PER_MEGABYTE = 1_000_000.0;
+
+    private static final String ROOT = "/corpus/";
+
+    private Corpus()
+    {
+    }
+
+    /**
+     * Load the documents of a corpus.
+     *
+     * @param name of the file, or directory, within the corpus.
+     *
+     * @return the documents, in file name order.
+     *
+     * @throws IOException if the corpus cannot be read.
+     */
+    public static List<String> load(final String name) throws IOException
+    {
+        final URL url = Corpus.class.getResource(ROOT + name);
+
+        if (url == null)
+        {
+            throw new FileNotFoundException(ROOT + name);
+        }
+
+        final URI uri = toURI(url);
+
+        //
+        // Inside the benchmarks jar, the corpus can only be listed through
+        // a zip file system.
+        //
+        if ("jar".equals(uri.getScheme()))
+        {
+            try (FileSystem fs = FileSystems.newFileSystem(uri, Map.of()))
+            {
+                return read(fs.provider().getPath(uri));
+            }
+        }
+
+        return read(Path.of(uri));
+    }
+
+    /**
+     * The size of the documents, as they would be read from a UTF-8 file.
+     *
+     * @param documents to measure.
+     *
+     * @return the number of megabytes (10<sup>6</sup> bytes).
+     */
+    public static double megabytes(final List<String> documents)
+    {
+        long bytes = 0;
+
+        for (final String document : documents)
+        {
+            bytes += document.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        return bytes / BYTES_PER_MEGABYTE;
+    }
+
+    private static boolean isDocument(final Path file)
+    {
+        return file.getFileName().toString().endsWith(".text");
+    }
+
+    private static List<String> read(final Path path) throws IOException
+    {
+        final List<String> documents = new ArrayList<>();
+
+        if (Files.isDirectory(path))
+        {
+            try (Stream<Path> files = Files.list(path))
+            {
+                for (final Path file : files.filter(Corpus::isDocument).sorted().toList())
+                {
+                    documents.add(Files.readString(file));
+                }
+            }
+        } else
+        {
+            documents.add(Files.readString(path));
+        }
+
+        return documents;
+    }
+
+    private static URI toURI(final URL url) throws IOException
+    {
+        try
+        {
+            return url.toURI();
+        } catch (URISyntaxException ex)
+        {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.benchmarks;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.PluginController;
+import com.bewsoftware.mdj.core.plugins.PluginInterlink;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Each {@link com.bewsoftware.mdj.core.plugins.TextConvertor TextConvertor}
+ * on its own, run through {@link PluginController#runPlugin(String,
+ * ConversionContext, TextEditor) runPlugin()}.
+ * <p>
+ * Except for {@code CleanupMarkdownText}, which is given the raw markdown,
+ * each plugin is given the documents as the block gamut first sees them:
+ * cleaned up, with the HTML blocks hashed, and the link definitions
+ * stripped. Each document keeps its own {@link ConversionContext}, so the
+ * link definitions, and the protected text, are there for the plugins that
+ * need them.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PluginBenchmark
+{
+    private static final String CLEANUP = "CleanupMarkdownText";
+
+    @Param(
+            {
+                "gfm_spec.txt"
+            })
+    public String corpus;
+
+    @Param(
+            {
+                "Anchors",
+                "AutoLinks",
+                "BlockQuotes",
+                CLEANUP,
+                "CodeBlocks",
+                "CodeSpans",
+                "DelIns",
+                "EncodeAmpsAndAngles",
+                "EncodeBackslashEscapes",
+                "EncodeCode",
+                "EscapeSpecialCharsWithinTagAttributes",
+                "FencedCodeBlocks",
+                "FormParagraphs",
+                "HashHTMLBlocks",
+                "Headers",
+                "HorizontalRules",
+                "Images",
+                "Lists",
+                "StripLinkDefinitions",
+                "StrongEmAndBoldItalics",
+                "SubSup",
+                "Tables",
+                "UnEscapeSpecialChars"
+            })
+    public String plugin;
+
+    private ConversionContext[] contexts;
+
+    private PluginController controller;
+
+    private String[] inputs;
+
+    private double megabytes;
+
+    @Benchmark
+    public void runPlugin(final Blackhole blackhole, final Throughput throughput)
+    {
+        for (int i = 0; i < inputs.length; i++)
+        {
+            blackhole.consume(controller.runPlugin(plugin, contexts[i], new TextEditor(inputs[i])));
+        }
+
+        throughput.megabytes += megabytes;
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        final List<String> documents = Corpus.load(corpus);
+
+        contexts = new ConversionContext[documents.size()];
+        controller = new PluginController();
+        inputs = new String[documents.size()];
+        megabytes = Corpus.megabytes(documents);
+
+        for (int i = 0; i < inputs.length; i++)
+        {
+            contexts[i] = new ConversionContext();
+            inputs[i] = CLEANUP.equals(plugin)
+                    ? documents.get(i)
+                    : prepare(contexts[i], documents.get(i));
+        }
+    }
+
+    /**
+     * Take the document through the same steps as
+     * {@link com.bewsoftware.mdj.MarkdownProcessor#convert(String)
+     * convert()}, up to the block gamut.
+     */
+    private static String prepare(final ConversionContext context, final String document)
+    {
+        final TextEditor text = new TextEditor(document);
+
+        PluginInterlink.cleanupMarkdownText(context, text);
+        PluginInterlink.hashHTMLBlocks(context, text);
+        PluginInterlink.stripLinkDefinitions(context, text);
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.benchmarks;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.PluginController;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A single table, of a growing number of rows, run through the
+ * {@code Tables} plugin.
+ * <p>
+ * The time taken should grow in step with the number of rows: ten times
+ * the rows, ten times the time.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TableBenchmark
+{
+    @Param(
+            {
+                "1000", "10000", "100000"
+            })
+    public int rows;
+
+    private PluginController controller;
+
+    private String table;
+
+    @Benchmark
+    public TextEditor tables()
+    {
+        return controller.runPlugin("Tables", new ConversionContext(), new TextEditor(table));
+    }
+
+    @Setup
+    public void setup()
+    {
+        final StringBuilder sb = new StringBuilder("Intro\n\n| Name | Value | Note |\n| :--- | ---: | :-: |\n");
+
+        for (int i = 0; i < rows; i++)
+        {
+            sb.append("| row ").append(i).append(" | *").append(i).append("* | `code` and [link](http://example.com/")
+                    .append(i).append(") |\n");
+        }
+
+        controller = new PluginController();
+        table = sb.toString();
+    }
+}
@@ -38,8 +38,18 @@
  */
 package com.bewsoftware.mdj;
 
+import com.bewsoftware.mdj.core.PipelineListener;
 import com.bewsoftware.mdj.core.TextEditor;
 import com.bewsoftware.mdj.core.plugins.PluginInterlink;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.engine.BlockEngine;
+import com.bewsoftware.mdj.engine.Engine;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.Executor;
 
 /**
  * Convert Markdown text into HTML.
@@ -55,12 +65,202 @@ public interface MarkdownProcessor
 //    static final String TAG_CLASS = "\\[@(\\p{Alpha}[^\\]]*?)(\\b\\p{Alpha}[^\\]]*?)*?\\]";
     /**
      * Perform the conversion from Markdown to HTML.
+     * <p>
+     * Each call has its own {@link ConversionContext}, so this method may be
+     * called concurrently from more than one thread.
+     * <p>
+     * Block-quotes nested more than
+     * {@value ConversionContext#DEFAULT_MAX_QUOTE_LEVEL} deep are left as
+     * plain text, rather than failing the conversion.
      *
      * @param markdown - text in markdown format
      *
      * @return HTML block converted from the markdown text passed in.
      */
     static String convert(final String markdown)
+    {
+        return convert(markdown, new ConversionContext());
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, writing each finished
+     * top-level block to {@code output} as soon as it is ready.
+     * <p>
+     * The output is the same as that returned by
+     * {@link #convert(java.lang.String) convert(markdown)}. However, the
+     * finished HTML is never held in memory as a whole document.
+     * <p>
+     * As link definitions may appear anywhere in a document, all of the
+     * {@code markdown} text must be available before any output can be
+     * written.
+     *
+     * @param markdown text in markdown format
+     * @param output   where the HTML is to be written
+     *
+     * @throws IOException if {@code output} throws one.
+     *
+     * @since 0.8.1
+     */
+    static void convert(final CharSequence markdown, final Appendable output) throws IOException
+    {
+        if (markdown != null && !isBlank(markdown))
+        {
+            final ConversionContext context = new ConversionContext();
+            final TextEditor text = new TextEditor(markdown);
+
+            context.setOutput(output);
+
+            try
+            {
+                cleanupMarkdownText(context, text);
+                hashHTMLBlocks(context, text);
+                stripLinkDefinitions(context, text);
+
+                //
+                // 'FormParagraphs' writes out its paragraphs, and returns
+                // nothing, only when it is the last of the block gamut.
+                // Anything else is finished here.
+                //
+                final TextEditor rest = runBlockGamut(context, text);
+
+                if (!rest.isEmpty())
+                {
+                    context.write(unEscapeSpecialChars(context, rest).toString());
+                }
+
+                context.write("\n");
+            } catch (UncheckedIOException ex)
+            {
+                throw ex.getCause();
+            }
+        } else
+        {
+            output.append("\n");
+        }
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, using the selected
+     * engine.
+     *
+     * @param markdown text in markdown format
+     * @param engine   the conversion engine to use
+     *
+     * @return HTML block converted from the markdown text passed in.
+     *
+     * @since 0.8.1
+     */
+    static String convert(final String markdown, final Engine engine)
+    {
+        return engine == Engine.BLOCKS
+                ? BlockEngine.convert(markdown)
+                : convert(markdown);
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, running the span level
+     * processing of the paragraphs on the {@code executor}.
+     * <p>
+     * The paragraphs of a document are independent of each other, once its
+     * link definitions have been found. So a single large document can make
+     * use of more than one core, for example by passing
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()}. The output is
+     * the same as that returned by {@link #convert(java.lang.String)
+     * convert(markdown)}.
+     *
+     * @param markdown text in markdown format
+     * @param executor where the paragraphs are to be processed, or
+     *                 {@code null} to process them on the calling thread
+     *
+     * @return HTML block converted from the markdown text passed in.
+     *
+     * @since 0.8.1
+     */
+    static String convert(final String markdown, final Executor executor)
+    {
+        final ConversionContext context = new ConversionContext();
+
+        context.setParagraphExecutor(executor);
+
+        return convert(markdown, context);
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, telling the
+     * {@code listener} about each plugin as it is run.
+     * <p>
+     * The output is the same as that returned by
+     * {@link #convert(java.lang.String) convert(markdown)}.
+     *
+     * @param markdown text in markdown format
+     * @param listener to be told about each plugin, or {@code null}
+     *
+     * @return HTML block converted from the markdown text passed in.
+     *
+     * @since 0.8.1
+     */
+    static String convert(final String markdown, final PipelineListener listener)
+    {
+        final ConversionContext context = new ConversionContext();
+
+        context.setPipelineListener(listener);
+
+        return convert(markdown, context);
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, using the selected
+     * engine, and writing each finished top-level block to {@code output} as
+     * soon as it is ready.
+     *
+     * @param markdown text in markdown format
+     * @param output   where the HTML is to be written
+     * @param engine   the conversion engine to use
+     *
+     * @throws IOException if {@code output} throws one.
+     *
+     * @since 0.8.1
+     */
+    static void convert(
+            final CharSequence markdown,
+            final Appendable output,
+            final Engine engine
+    ) throws IOException
+    {
+        if (engine == Engine.BLOCKS)
+        {
+            BlockEngine.convert(markdown, output);
+        } else
+        {
+            convert(markdown, output);
+        }
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, writing each finished
+     * top-level block to {@code out} as soon as it is ready.
+     * <p>
+     * All of {@code in} is read before any output is written. Neither
+     * {@code in}, nor {@code out}, is closed. However, {@code out} is flushed.
+     *
+     * @param in  source of the text in markdown format
+     * @param out where the HTML is to be written
+     *
+     * @throws IOException if either {@code in}, or {@code out}, throws one.
+     *
+     * @see #convert(java.lang.CharSequence, java.lang.Appendable)
+     * @since 0.8.1
+     */
+    static void convert(final Reader in, final Writer out) throws IOException
+    {
+        final StringWriter markdown = new StringWriter();
+
+        in.transferTo(markdown);
+        convert(markdown.getBuffer(), out);
+        out.flush();
+    }
+
+    private static String convert(final String markdown, final ConversionContext context)
     {
         String rtn = "\n";
 
@@ -68,11 +268,11 @@ public interface MarkdownProcessor
         {
             TextEditor text = new TextEditor(markdown);
 
-            cleanupMarkdownText(text);
-            hashHTMLBlocks(text);
-            stripLinkDefinitions(text);
-            text = runBlockGamut(text);
-            unEscapeSpecialChars(text);
+            cleanupMarkdownText(context, text);
+            hashHTMLBlocks(context, text);
+            stripLinkDefinitions(context, text);
+            text = runBlockGamut(context, text);
+            unEscapeSpecialChars(context, text);
             text.append("\n");
             rtn = text.toString();
         }
@@ -80,28 +280,33 @@ public interface MarkdownProcessor
         return rtn;
     }
 
-    private static TextEditor cleanupMarkdownText(final TextEditor text)
+    private static TextEditor cleanupMarkdownText(final ConversionContext context, final TextEditor text)
+    {
+        return PluginInterlink.cleanupMarkdownText(context, text);
+    }
+
+    private static TextEditor hashHTMLBlocks(final ConversionContext context, final TextEditor text)
     {
-        return PluginInterlink.cleanupMarkdownText(text);
+        return PluginInterlink.hashHTMLBlocks(context, text);
     }
 
-    private static TextEditor hashHTMLBlocks(final TextEditor text)
+    private static boolean isBlank(final CharSequence text)
     {
-        return PluginInterlink.hashHTMLBlocks(text);
+        return text.chars().allMatch(Character::isWhitespace);
     }
 
-    private static TextEditor runBlockGamut(final TextEditor text)
+    private static TextEditor runBlockGamut(final ConversionContext context, final TextEditor text)
     {
-        return PluginInterlink.runBlockGamut(text);
+        return PluginInterlink.runBlockGamut(context, text);
     }
 
-    private static TextEditor stripLinkDefinitions(final TextEditor text)
+    private static TextEditor stripLinkDefinitions(final ConversionContext context, final TextEditor text)
     {
-        return PluginInterlink.stripLinkDefinitions(text);
+        return PluginInterlink.stripLinkDefinitions(context, text);
     }
 
-    private static TextEditor unEscapeSpecialChars(final TextEditor text)
+    private static TextEditor unEscapeSpecialChars(final ConversionContext context, final TextEditor text)
     {
-        return PluginInterlink.unEscapeSpecialChars(text);
+        return PluginInterlink.unEscapeSpecialChars(context, text);
     }
 }
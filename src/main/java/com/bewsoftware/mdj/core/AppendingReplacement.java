@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core;
+
+import java.util.regex.Matcher;
+
+/**
+ * A {@link Replacement} that writes its replacement text straight into the
+ * output, instead of returning it as a new String.
+ * <p>
+ * {@link TextEditor#replaceAll(java.util.regex.Pattern, Replacement)
+ * TextEditor.replaceAll()} checks for this interface, and calls
+ * {@link #appendTo(Matcher, StringBuilder) appendTo()} with the buffer it is
+ * building the result in. This saves a temporary StringBuilder, its String,
+ * and the copy of that String, for every match.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public interface AppendingReplacement extends Replacement
+{
+    /**
+     * Append the replacement text for the current match.
+     *
+     * @param m  The matcher, positioned on the current match.
+     * @param sb The buffer to append the replacement text to.
+     */
+    void appendTo(Matcher m, StringBuilder sb);
+
+    /**
+     * Returns the replacement text for the current match.
+     *
+     * @param m The matcher, positioned on the current match.
+     *
+     * @return the text that {@link #appendTo(Matcher, StringBuilder) appendTo()}
+     *         would append.
+     */
+    @Override
+    default String process(final Matcher m)
+    {
+        final StringBuilder sb = new StringBuilder();
+        appendTo(m, sb);
+        return sb.toString();
+    }
+}
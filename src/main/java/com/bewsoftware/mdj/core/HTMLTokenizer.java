@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits text into a sequence of HTML tags, and the text between them.
+ * <p>
+ * A tag is one of:
+ * <ul>
+ * <li>a comment: {@code <!-- ... -->}, including a run of comments inside
+ * the one {@code <! ... >},</li>
+ * <li>a processing instruction: {@code <? ... ?>},</li>
+ * <li>any other {@code <} followed by a letter, {@code /}, {@code !} or
+ * {@code $}, up to its matching {@code >}. Tags may be nested inside each
+ * other, up to {@value #MAX_DEPTH} deep.</li>
+ * </ul>
+ * The tokens are the same as those the regular expression
+ * <pre><code>
+ * (?s:&lt;!(--.*?--\s*)+&gt;)|(?s:&lt;\?.*?\?&gt;)|(?:&lt;[a-z/!$](?:[^&lt;&gt;]|(?:&lt;[a-z/!$](?: ... )*&gt;))*&gt;)
+ * </code></pre>
+ * (nested six deep, case insensitive) would find. However, the text is only
+ * scanned once, so the time taken grows in line with the length of the text.
+ * <p>
+ * The tokens are produced as they are asked for. The text must not be
+ * changed while it is being iterated.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class HTMLTokenizer implements Iterator<HTMLToken>
+{
+    /**
+     * The deepest that tags may be nested inside each other.
+     */
+    public static final int MAX_DEPTH = 6;
+
+    private static final int NOT_FOUND = -1;
+
+    private static final int NOT_SET = -2;
+
+    /**
+     * The end of the next tag, once found.
+     */
+    private int tagEnd;
+
+    /**
+     * The start of the next tag, once found.
+     */
+    private int tagStart = NOT_SET;
+
+    /**
+     * The start of the last {@code "--"} that is followed by optional
+     * white space and a {@code '>'}.
+     */
+    private int lastCommentEnd = NOT_SET;
+
+    /**
+     * The start of the last {@code "?>"}.
+     */
+    private int lastPIEnd = NOT_SET;
+
+    /**
+     * The start of the next token.
+     */
+    private int pos;
+
+    private final CharSequence text;
+
+    /**
+     * Instantiate a new tokenizer.
+     *
+     * @param text The text to split.
+     */
+    public HTMLTokenizer(final CharSequence text)
+    {
+        this.text = text;
+    }
+
+    private static boolean isTagStart(final char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || c == '/' || c == '!' || c == '$';
+    }
+
+    private static boolean isWhitespace(final char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return pos < text.length();
+    }
+
+    @Override
+    public HTMLToken next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        if (tagStart < pos && tagStart != NOT_FOUND)
+        {
+            findTag();
+        }
+
+        final HTMLToken token;
+
+        if (tagStart == pos)
+        {
+            token = HTMLToken.tag(text.subSequence(pos, tagEnd).toString());
+            pos = tagEnd;
+        } else
+        {
+            final int end = tagStart == NOT_FOUND ? text.length() : tagStart;
+
+            token = HTMLToken.text(text.subSequence(pos, end).toString());
+            pos = end;
+        }
+
+        return token;
+    }
+
+    /**
+     * Find the next tag, at or after {@link #pos}.
+     */
+    private void findTag()
+    {
+        final int length = text.length();
+
+        for (int i = pos; i < length - 1; i++)
+        {
+            if (text.charAt(i) == '<')
+            {
+                final int end = matchTag(i);
+
+                if (end != NOT_FOUND)
+                {
+                    tagStart = i;
+                    tagEnd = end;
+                    return;
+                }
+            }
+        }
+
+        tagStart = NOT_FOUND;
+    }
+
+    /**
+     * Returns the start of the last {@code "--"} that is followed by optional
+     * white space and a {@code '>'}, the only place a comment can end.
+     */
+    private int lastCommentEnd()
+    {
+        if (lastCommentEnd == NOT_SET)
+        {
+            lastCommentEnd = NOT_FOUND;
+
+            for (int i = text.length() - 1; i >= 0 && lastCommentEnd == NOT_FOUND; i--)
+            {
+                if (text.charAt(i) == '>')
+                {
+                    int j = i;
+
+                    while (j > 0 && isWhitespace(text.charAt(j - 1)))
+                    {
+                        j--;
+                    }
+
+                    if (j >= 2 && text.charAt(j - 1) == '-' && text.charAt(j - 2) == '-')
+                    {
+                        lastCommentEnd = j - 2;
+                    } else
+                    {
+                        i = j;
+                    }
+                }
+            }
+        }
+
+        return lastCommentEnd;
+    }
+
+    private int lastPIEnd()
+    {
+        if (lastPIEnd == NOT_SET)
+        {
+            lastPIEnd = NOT_FOUND;
+
+            for (int i = text.length() - 2; i >= 0 && lastPIEnd == NOT_FOUND; i--)
+            {
+                if (startsWith("?>", i))
+                {
+                    lastPIEnd = i;
+                }
+            }
+        }
+
+        return lastPIEnd;
+    }
+
+    /**
+     * Match a comment: {@code <!(--.*?--\s*)+>}.
+     * <p>
+     * The comments are lazy, but the run of them is greedy. So, each comment
+     * ends at the first {@code "--"} that can either start another comment,
+     * or be followed by the closing {@code '>'}. Another comment is preferred,
+     * as long as one of its own ends can be followed by a {@code '>'}.
+     *
+     * @param start The position of the {@code '<'}.
+     *
+     * @return the end of the match, or {@link #NOT_FOUND}.
+     */
+    private int matchComment(final int start)
+    {
+        int open = start + 2;
+
+        if (!startsWith("--", open) || lastCommentEnd() < open + 2)
+        {
+            return NOT_FOUND;
+        }
+
+        int i = open + 2;
+
+        while (true)
+        {
+            final int close = indexOf("--", i);
+
+            if (close == NOT_FOUND)
+            {
+                return NOT_FOUND;
+            }
+
+            final int next = skipWhitespace(close + 2);
+
+            if (startsWith("--", next))
+            {
+                if (lastCommentEnd() >= next + 2)
+                {
+                    open = next;
+                    i = open + 2;
+                    continue;
+                }
+            } else if (next < text.length() && text.charAt(next) == '>')
+            {
+                return next + 1;
+            }
+
+            i = close + 1;
+        }
+    }
+
+    /**
+     * Match a processing instruction: {@code <\?.*?\?>}.
+     *
+     * @param start The position of the {@code '<'}.
+     *
+     * @return the end of the match, or {@link #NOT_FOUND}.
+     */
+    private int matchPI(final int start)
+    {
+        return lastPIEnd() < start + 2 ? NOT_FOUND : indexOf("?>", start + 2) + 2;
+    }
+
+    /**
+     * Match whichever kind of tag starts at {@code start}.
+     *
+     * @param start The position of the {@code '<'}.
+     *
+     * @return the end of the match, or {@link #NOT_FOUND}.
+     */
+    private int matchTag(final int start)
+    {
+        final char c = text.charAt(start + 1);
+        int end = NOT_FOUND;
+
+        if (c == '!')
+        {
+            end = matchComment(start);
+        } else if (c == '?')
+        {
+            end = matchPI(start);
+        }
+
+        if (end == NOT_FOUND && isTagStart(c))
+        {
+            end = matchNestedTag(start);
+        }
+
+        return end;
+    }
+
+    /**
+     * Match a tag, with up to {@link #MAX_DEPTH} levels of tags nested
+     * inside it.
+     *
+     * @param start The position of the {@code '<'}.
+     *
+     * @return the end of the match, or {@link #NOT_FOUND}.
+     */
+    private int matchNestedTag(final int start)
+    {
+        final int length = text.length();
+        int depth = 1;
+
+        for (int i = start + 2; i < length; i++)
+        {
+            final char c = text.charAt(i);
+
+            if (c == '>')
+            {
+                if (--depth == 0)
+                {
+                    return i + 1;
+                }
+            } else if (c == '<')
+            {
+                if (depth == MAX_DEPTH || i + 1 == length || !isTagStart(text.charAt(i + 1)))
+                {
+                    return NOT_FOUND;
+                }
+
+                depth++;
+                i++;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private int indexOf(final String str, final int from)
+    {
+        final int last = text.length() - str.length();
+
+        for (int i = from; i <= last; i++)
+        {
+            if (startsWith(str, i))
+            {
+                return i;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private int skipWhitespace(final int from)
+    {
+        int i = from;
+
+        while (i < text.length() && isWhitespace(text.charAt(i)))
+        {
+            i++;
+        }
+
+        return i;
+    }
+
+    private boolean startsWith(final String str, final int from)
+    {
+        if (from < 0 || from + str.length() > text.length())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < str.length(); i++)
+        {
+            if (text.charAt(from + i) != str.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
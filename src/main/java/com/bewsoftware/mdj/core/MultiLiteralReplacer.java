@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces every occurrence of each of a table of literal strings, in a
+ * single scan of the text.
+ * <p>
+ * At each position in the text, the literals starting with that character
+ * are tried in the order they were {@link #add(String, String) added}, and
+ * the first one that matches is replaced. The replacements are not scanned
+ * again.
+ * <p>
+ * This gives the same result as calling
+ * {@link TextEditor#replaceAllLiteral(String, String) replaceAllLiteral()}
+ * once for each entry, in the same order, as long as no replacement contains
+ * a later literal, and no literal can overlap the start of an earlier one.
+ * That holds for the character escaping tables this is used for.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class MultiLiteralReplacer
+{
+    private static final int ASCII = 128;
+
+    /**
+     * The table entries for each ASCII first character.
+     */
+    private final Entry[][] ascii = new Entry[ASCII][];
+
+    /**
+     * The table entries for any other first character.
+     */
+    private final Map<Character, Entry[]> other = new HashMap<>();
+
+    /**
+     * Instantiate an empty table.
+     */
+    public MultiLiteralReplacer()
+    {
+    }
+
+    private static Entry[] append(final Entry[] entries, final Entry entry)
+    {
+        final List<Entry> list = new ArrayList<>();
+
+        if (entries != null)
+        {
+            list.addAll(List.of(entries));
+        }
+
+        list.add(entry);
+
+        return list.toArray(Entry[]::new);
+    }
+
+    /**
+     * Add an entry to the end of the table.
+     *
+     * @param literal     The text to find.
+     * @param replacement The text to replace it with.
+     *
+     * @return this object for chaining purposes.
+     */
+    public MultiLiteralReplacer add(final String literal, final String replacement)
+    {
+        if (literal.isEmpty())
+        {
+            throw new IllegalArgumentException("literal is empty");
+        }
+
+        final char first = literal.charAt(0);
+        final Entry entry = new Entry(literal, replacement);
+
+        if (first < ASCII)
+        {
+            ascii[first] = append(ascii[first], entry);
+        } else
+        {
+            other.put(first, append(other.get(first), entry));
+        }
+
+        return this;
+    }
+
+    /**
+     * Replace every occurrence of the literals in {@code text}, appending
+     * the result to {@code output}.
+     *
+     * @param text   to search.
+     * @param output where the result is appended.
+     *
+     * @return {@code true} if anything was replaced.
+     */
+    public boolean replaceAll(final CharSequence text, final StringBuilder output)
+    {
+        final int length = text.length();
+        int copied = 0;
+        int i = 0;
+        boolean found = false;
+
+        while (i < length)
+        {
+            final Entry entry = match(text, i);
+
+            if (entry != null)
+            {
+                output.append(text, copied, i).append(entry.replacement);
+                i += entry.literal.length();
+                copied = i;
+                found = true;
+            } else
+            {
+                i++;
+            }
+        }
+
+        output.append(text, copied, length);
+
+        return found;
+    }
+
+    /**
+     * Replace every occurrence of the literals in {@code text}.
+     *
+     * @param text to search.
+     *
+     * @return the new text.
+     */
+    public String replaceAll(final CharSequence text)
+    {
+        final StringBuilder sb = new StringBuilder(text.length());
+
+        replaceAll(text, sb);
+
+        return sb.toString();
+    }
+
+    private Entry match(final CharSequence text, final int index)
+    {
+        final char c = text.charAt(index);
+        final Entry[] entries = c < ASCII ? ascii[c] : other.isEmpty() ? null : other.get(c);
+        Entry rtn = null;
+
+        if (entries != null)
+        {
+            for (int i = 0; i < entries.length && rtn == null; i++)
+            {
+                if (entries[i].matches(text, index))
+                {
+                    rtn = entries[i];
+                }
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * A single entry of the table.
+     */
+    private static class Entry
+    {
+        private final String literal;
+
+        private final String replacement;
+
+        private Entry(final String literal, final String replacement)
+        {
+            this.literal = literal;
+            this.replacement = replacement;
+        }
+
+        private boolean matches(final CharSequence text, final int index)
+        {
+            final int end = index + literal.length();
+            boolean rtn = end <= text.length();
+
+            for (int i = 1; rtn && i < literal.length(); i++)
+            {
+                rtn = text.charAt(index + i) == literal.charAt(i);
+            }
+
+            return rtn;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core;
+
+/**
+ * Told about each plugin as it is run by a conversion.
+ * <p>
+ * A plugin may run others in turn: the block gamut is run again over each
+ * list item and block-quote, and the span gamut over each header,
+ * paragraph, and table cell. So each call gives the {@code depth} of the
+ * plugin: one for those run directly by the conversion, two for those they
+ * run, and so on.
+ * <p>
+ * The callbacks are made on the thread running the conversion, in the order
+ * the plugins are run. So a listener need only be thread-safe if it is
+ * shared by conversions running at the same time. While a conversion has a
+ * listener, its paragraphs are always processed on that thread.
+ * <p>
+ * If a conversion has no listener, its plugins are called directly, with
+ * nothing measured.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @see com.bewsoftware.mdj.MarkdownProcessor#convert(java.lang.String, PipelineListener)
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public interface PipelineListener
+{
+    /**
+     * Called once a plugin has finished.
+     * <p>
+     * It is not called if the plugin throws an exception.
+     *
+     * @param name         the simple class name of the plugin.
+     * @param inputLength  the length of the text the plugin was given.
+     * @param outputLength the length of the text it returned.
+     * @param nanos        the time it took, in nanoseconds, including any
+     *                     plugins it ran.
+     * @param depth        how deeply the plugin is nested.
+     */
+    default void afterPlugin(
+            final String name,
+            final int inputLength,
+            final int outputLength,
+            final long nanos,
+            final int depth
+    )
+    {
+    }
+
+    /**
+     * Called before a plugin is run.
+     *
+     * @param name        the simple class name of the plugin.
+     * @param inputLength the length of the text it is given.
+     * @param depth       how deeply the plugin is nested.
+     */
+    default void beforePlugin(final String name, final int inputLength, final int depth)
+    {
+    }
+}
@@ -42,12 +42,13 @@ import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.plugins.utils.Constants;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.TAB_WIDTH;
-import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.MULTILINE;
 
 /**
@@ -58,14 +59,31 @@ import static java.util.regex.Pattern.MULTILINE;
  * <li>Set all method parameters to be {@code final}.</li>
  * </ul>
  * Bradley Willcott (02/01/2021)
+ * <p>
+ * It is a {@link CharSequence} of its current text, so that the text can be
+ * read without first being copied out by {@link #toString()}.
  *
  * @since 0.1
  * @version 0.8.0
  */
-public class TextEditor
+public class TextEditor implements CharSequence
 {
+    /**
+     * The largest spare buffer kept, in chars. A larger one is dropped, so
+     * that an editor of a large text does not hold twice its size for as
+     * long as it is kept.
+     */
+    private static final int MAX_SPARE_CAPACITY = 1 << 16;
+
     private boolean found;
 
+    /**
+     * The buffer the next pass writes into. Once the pass has finished, it
+     * becomes the {@link #text}, and the old text becomes the spare, unless
+     * it is larger than {@link #MAX_SPARE_CAPACITY}.
+     */
+    private StringBuilder spare;
+
     private StringBuilder text;
 
     /**
@@ -89,6 +107,24 @@ public class TextEditor
         text.append(s);
     }
 
+    @Override
+    public char charAt(final int index)
+    {
+        return text.charAt(index);
+    }
+
+    /**
+     * Find out whether the buffer contains the given text.
+     *
+     * @param s text to look for.
+     *
+     * @return {@code true} if found.
+     */
+    public boolean contains(final CharSequence s)
+    {
+        return text.indexOf(s.toString()) > -1;
+    }
+
     /**
      * Remove all occurrences of the given regex pattern, replacing them with
      * the empty string.
@@ -143,6 +179,36 @@ public class TextEditor
         return this;
     }
 
+    /**
+     * Copy characters of the text into the destination array, as
+     * {@link StringBuilder#getChars(int, int, char[], int)} does.
+     *
+     * @param srcBegin start copying at this offset.
+     * @param srcEnd   stop copying at this offset.
+     * @param dst      the array to copy the data into.
+     * @param dstBegin offset into {@code dst}.
+     *
+     * @since 0.8.1
+     */
+    public void getChars(final int srcBegin, final int srcEnd, final char[] dst, final int dstBegin)
+    {
+        text.getChars(srcBegin, srcEnd, dst, dstBegin);
+    }
+
+    /**
+     * Parse HTML tags, returning each HTMLToken as it is asked for.
+     * <p>
+     * The text must not be changed until the iteration is finished.
+     *
+     * @return tokens iterator.
+     *
+     * @see HTMLTokenizer
+     */
+    public Iterator<HTMLToken> htmlTokens()
+    {
+        return new HTMLTokenizer(text);
+    }
+
     /**
      * Introduce a number of spaces at the start of each line.
      *
@@ -165,6 +231,18 @@ public class TextEditor
         return text.length() == 0;
     }
 
+    /**
+     * The length of the text in the buffer.
+     *
+     * @return the number of chars.
+     *
+     * @since 0.8.1
+     */
+    public int length()
+    {
+        return text.length();
+    }
+
     /**
      * Remove a number of spaces at the start of each line.
      *
@@ -241,21 +319,22 @@ public class TextEditor
     {
         if (text.length() > 0)
         {
-            final String r = replacement;
-            final Pattern p = Pattern.compile(regex, MULTILINE);
-            final Matcher m = p.matcher(text);
-            final StringBuffer sb = new StringBuffer();
+            final Matcher m = Pattern.compile(regex, MULTILINE).matcher(text);
 
-            found = false;
+            found = m.find();
 
-            while (m.find())
+            if (found)
             {
-                found = true;
-                m.appendReplacement(sb, r);
-            }
+                final StringBuilder sb = takeSpare();
+
+                do
+                {
+                    m.appendReplacement(sb, replacement);
+                } while (m.find());
 
-            m.appendTail(sb);
-            text = new StringBuilder(sb.toString());
+                m.appendTail(sb);
+                keep(sb, true);
+            }
         }
 
         return this;
@@ -265,6 +344,9 @@ public class TextEditor
      * Replace all occurrences of the Pattern. The Replacement object's
      * replace() method is called on each match, and it provides a replacement,
      * which is placed literally (i.e., without interpreting $1, $2 etc.)
+     * <p>
+     * An {@link AppendingReplacement} appends its replacement straight into
+     * the new text instead.
      *
      * @param pattern     The pattern to use.
      * @param replacement The replacement to use.
@@ -274,25 +356,49 @@ public class TextEditor
     public TextEditor replaceAll(final Pattern pattern, final Replacement replacement)
     {
         final Matcher m = pattern.matcher(text);
-        int lastIndex = 0;
-        final StringBuilder sb = new StringBuilder();
 
-        found = false;
+        found = m.find();
 
-        while (m.find())
+        if (found)
         {
-            found = true;
-            sb.append(text.subSequence(lastIndex, m.start()));
-            sb.append(replacement.process(m));
-            lastIndex = m.end();
-        }
+            final StringBuilder sb = takeSpare();
+            int lastIndex = 0;
+
+            do
+            {
+                sb.append(text, lastIndex, m.start());
 
-        sb.append(text.subSequence(lastIndex, text.length()));
-        text = sb;
+                if (replacement instanceof AppendingReplacement appending)
+                {
+                    appending.appendTo(m, sb);
+                } else
+                {
+                    sb.append(replacement.process(m));
+                }
+
+                lastIndex = m.end();
+            } while (m.find());
+
+            sb.append(text, lastIndex, text.length());
+            keep(sb, true);
+        }
 
         return this;
     }
 
+    /**
+     * Replace all occurrences of each of the literals in the table, in a
+     * single scan of the text.
+     *
+     * @param replacer The table of literals, and their replacements.
+     *
+     * @return this object for chaining purposes.
+     */
+    public TextEditor replaceAll(final MultiLiteralReplacer replacer)
+    {
+        return rewrite(replacer::replaceAll);
+    }
+
     /**
      * Same as replaceAll(String, String), but does not interpret $1, $2 etc. in
      * the replacement string.
@@ -307,6 +413,51 @@ public class TextEditor
         return replaceAll(Pattern.compile(regex, MULTILINE), (Matcher m) -> replacement);
     }
 
+    /**
+     * Rewrite the text in a single pass, such as
+     * {@link MultiLiteralReplacer#replaceAll(CharSequence, StringBuilder)
+     * MultiLiteralReplacer.replaceAll()}.
+     * <p>
+     * The pass is given the text, and an empty buffer to write the new text
+     * into. It returns {@code true} if it has written the new text, in which
+     * case the buffer becomes the text.
+     *
+     * @param pass The pass to run.
+     *
+     * @return this object for chaining purposes.
+     *
+     * @since 0.8.1
+     */
+    public TextEditor rewrite(final BiPredicate<CharSequence, StringBuilder> pass)
+    {
+        final StringBuilder sb = takeSpare();
+
+        found = pass.test(text, sb);
+        keep(sb, found);
+
+        return this;
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        return text.subSequence(start, end);
+    }
+
+    /**
+     * Replace the whole of the text.
+     *
+     * @param s The new text.
+     *
+     * @return this object for chaining purposes.
+     */
+    public TextEditor setText(final CharSequence s)
+    {
+        text.setLength(0);
+        text.append(s);
+        return this;
+    }
+
     /**
      * Give up the contents of the TextEditor.
      *
@@ -322,38 +473,14 @@ public class TextEditor
      * Parse HTML tags, returning a Collection of HTMLToken objects.
      *
      * @return tokens collection.
+     *
+     * @see #htmlTokens()
      */
     public Collection<HTMLToken> tokenizeHTML()
     {
         final List<HTMLToken> tokens = new ArrayList<>();
-        final String nestedTags = nestedTagsRegex(6);
 
-        final Pattern p = Pattern.compile(""
-                + "(?s:<!(--.*?--\\s*)+>)"
-                + "|"
-                + "(?s:<\\?.*?\\?>)"
-                + "|"
-                + nestedTags
-                + "", CASE_INSENSITIVE);
-
-        final Matcher m = p.matcher(text);
-        int lastPos = 0;
-
-        while (m.find())
-        {
-            if (lastPos < m.start())
-            {
-                tokens.add(HTMLToken.text(text.substring(lastPos, m.start())));
-            }
-
-            tokens.add(HTMLToken.tag(text.substring(m.start(), m.end())));
-            lastPos = m.end();
-        }
-
-        if (lastPos < text.length())
-        {
-            tokens.add(HTMLToken.text(text.substring(lastPos, text.length())));
-        }
+        htmlTokens().forEachRemaining(tokens::add);
 
         return tokens;
     }
@@ -366,7 +493,21 @@ public class TextEditor
      */
     public TextEditor trim()
     {
-        text = new StringBuilder(text.toString().trim());
+        int end = text.length();
+        int start = 0;
+
+        while (end > 0 && text.charAt(end - 1) <= ' ')
+        {
+            end--;
+        }
+
+        while (start < end && text.charAt(start) <= ' ')
+        {
+            start++;
+        }
+
+        text.setLength(end);
+        text.delete(0, start);
 
         return this;
     }
@@ -374,9 +515,11 @@ public class TextEditor
     /**
      * Result of last regex search performed by replaceAll*() methods.
      *
+     * @see TextEditor#replaceAll(MultiLiteralReplacer)
      * @see TextEditor#replaceAll(Pattern, Replacement)
      * @see TextEditor#replaceAll(String, String)
      * @see TextEditor#replaceAllLiteral(String, String)
+     * @see TextEditor#rewrite(BiPredicate)
      *
      * @return {@code True} if found, {@code false} otherwise.
      */
@@ -386,20 +529,43 @@ public class TextEditor
     }
 
     /**
-     * Regex to match a tag, possibly with nested tags such as <a
-     * href="<MTFoo>">.
+     * Finish a pass that wrote into {@code sb}.
      *
-     * @param depth - How many levels of tags-within-tags to allow. The example
-     *              <a href="<MTFoo>"> has depth 2.
+     * @param sb      The buffer from {@link #takeSpare()}.
+     * @param changed Set if {@code sb} is now the text.
      */
-    private String nestedTagsRegex(final int depth)
+    private void keep(final StringBuilder sb, final boolean changed)
     {
-        if (depth == 0)
+        if (changed)
         {
-            return "";
+            spare = text;
+            text = sb;
         } else
         {
-            return "(?:<[a-z/!$](?:[^<>]|" + nestedTagsRegex(depth - 1) + ")*>)";
+            spare = sb;
         }
+
+        if (spare.capacity() > MAX_SPARE_CAPACITY)
+        {
+            spare = null;
+        }
+    }
+
+    /**
+     * Take the spare buffer, empty, for the next pass to write into.
+     * <p>
+     * Until it is handed back by {@link #keep(StringBuilder, boolean) keep()},
+     * a pass started from within a {@link Replacement} gets a buffer of its
+     * own.
+     * </p>
+     */
+    private StringBuilder takeSpare()
+    {
+        final StringBuilder sb = spare != null ? spare : new StringBuilder(text.length());
+
+        spare = null;
+        sb.setLength(0);
+
+        return sb;
     }
 }
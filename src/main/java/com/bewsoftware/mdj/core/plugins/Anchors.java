@@ -37,8 +37,9 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
-import com.bewsoftware.mdj.core.Replacement;
+import com.bewsoftware.mdj.core.AppendingReplacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import com.bewsoftware.mdj.core.utils.LinkDefinition;
 import com.bewsoftware.utils.Ref;
 import java.util.regex.Matcher;
@@ -71,11 +72,11 @@ public class Anchors implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        processInternalLinks(text);
-        processInlineLinks(text);
-        processReferenceShortcuts(text);
+        processInternalLinks(context, text);
+        processInlineLinks(context, text);
+        processReferenceShortcuts(context, text);
         return text;
     }
 
@@ -92,47 +93,51 @@ public class Anchors implements TextConvertor
                 .append(targetTag).append(">").append(linkText).append("</a>");
     }
 
-    private void processInlineLinks(final TextEditor text)
+    private void processInlineLinks(final ConversionContext context, final TextEditor text)
     {
-        text.replaceAll(InlineLink.PATTERN, new InlineLink());
+        text.replaceAll(InlineLink.PATTERN, new InlineLink(context));
     }
 
-    private void processInternalLinks(final TextEditor text)
+    private void processInternalLinks(final ConversionContext context, final TextEditor text)
     {
-        text.replaceAll(InternalLink.PATTERN, new InternalLink());
+        text.replaceAll(InternalLink.PATTERN, new InternalLink(context));
     }
 
-    private void processReferenceShortcuts(final TextEditor text)
+    private void processReferenceShortcuts(final ConversionContext context, final TextEditor text)
     {
-        text.replaceAll(ReferenceShortcut.PATTERN, new ReferenceShortcut());
+        text.replaceAll(ReferenceShortcut.PATTERN, new ReferenceShortcut(context));
     }
 
-    private String processTitle(final LinkDefinition defn)
+    private String processTitle(final ConversionContext context, final LinkDefinition defn)
     {
         String title = defn.title;
         String titleTag = "";
 
         if (notBlank(title))
         {
-            title = protectEmphasis(title);
+            title = protectEmphasis(context, title);
             titleTag = " title=\"" + title + "\"";
         }
 
         return titleTag;
     }
 
-    private void processUrl(final LinkDefinition defn, final StringBuilder replacementText)
+    private void processUrl(
+            final ConversionContext context,
+            final LinkDefinition defn,
+            final StringBuilder replacementText
+    )
     {
         String url = defn.url;
 
         if (url != null)
         {
-            url = protectEmphasis(url);
+            url = protectEmphasis(context, url);
             replacementText.append(" href=\"").append(url).append("\"");
         }
     }
 
-    private class InlineLink implements Replacement
+    private class InlineLink implements AppendingReplacement
     {
         // Inline-style links: [link text]!( url "optional title")
         //
@@ -166,27 +171,28 @@ public class Anchors implements TextConvertor
                 + ")?"
                 + "\\)", DOTALL);
 
-        private InlineLink()
+        private final ConversionContext context;
+
+        private InlineLink(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
-        public String process(final Matcher m)
+        public void appendTo(final Matcher m, final StringBuilder result)
         {
             final String linkText = m.group("linkText");
             final String url = m.group("url");
             final String title = m.group("title");
             final String target = m.group("target");
             final String classes = m.group("classes");
-            final StringBuilder result = new StringBuilder("<a");
 
+            result.append("<a");
             processUrl(url, result);
             processClasses(classes, result);
             processTitle(title, result);
             processTarget(target, result);
             finalizeResult(result, linkText);
-
-            return result.toString();
         }
 
         private void appendTitle(final StringBuilder result, final String title)
@@ -213,7 +219,7 @@ public class Anchors implements TextConvertor
         {
             if (notEmpty(target))
             {
-                result.append(TARGET);
+                result.append(context.getTarget());
             }
         }
 
@@ -221,7 +227,7 @@ public class Anchors implements TextConvertor
         {
             if (title != null)
             {
-                final String pTitle = protectEmphasis(title);
+                final String pTitle = protectEmphasis(context, title);
                 final String rpTitle = replaceAll(pTitle, "\"", "&quot;");
                 appendTitle(result, rpTitle);
             }
@@ -231,13 +237,13 @@ public class Anchors implements TextConvertor
         {
             if (url != null)
             {
-                final String pUrl = protectEmphasis(url);
+                final String pUrl = protectEmphasis(context, url);
                 result.append(" href=\"").append(pUrl).append("\"");
             }
         }
     }
 
-    private class InternalLink implements Replacement
+    private class InternalLink implements AppendingReplacement
     {
         // Internal references: [link text][id]!
         //
@@ -255,49 +261,47 @@ public class Anchors implements TextConvertor
                 + "(?<target>!)?"
                 + CLASS_REGEX_OPT); // BW
 
-        private InternalLink()
+        private final ConversionContext context;
+
+        private InternalLink(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
-        public String process(final Matcher m)
+        public void appendTo(final Matcher m, final StringBuilder replacementText)
         {
-            final String replacementText;
-            final String wholeMatch = m.group();
             final String linkText = m.group("linkText");
             final String linkId = m.group("linkId");
-            final String targetTag = m.group("target") != null ? TARGET : "";
+            final String targetTag = m.group("target") != null ? context.getTarget() : "";
             final String classes = m.group("classes");
 
             final String pLinkId = processLinkId(linkId, linkText);
-            final LinkDefinition defn = linkDefinitions.get(pLinkId);
+            final LinkDefinition defn = context.getLinkDefinitions().get(pLinkId);
 
             if (defn != null)
             {
-                replacementText = processLinkDefinition(defn, classes, targetTag, linkText);
+                processLinkDefinition(defn, classes, targetTag, linkText, replacementText);
             } else
             {
-                replacementText = wholeMatch;
+                replacementText.append(m.group());
             }
-
-            return replacementText;
         }
 
-        private String processLinkDefinition(
+        private void processLinkDefinition(
                 final LinkDefinition defn,
                 final String classes,
                 final String targetTag,
-                final String linkText
+                final String linkText,
+                final StringBuilder replacementText
         )
         {
-            final StringBuilder replacementText = new StringBuilder("<a");
             final String classAtrib = addClass(defn.classes, classes);
-            final String titleTag = processTitle(defn);
+            final String titleTag = processTitle(context, defn);
 
-            processUrl(defn, replacementText);
+            replacementText.append("<a");
+            processUrl(context, defn, replacementText);
             finalizeReplacementText(replacementText, "", classAtrib, titleTag, targetTag, linkText);
-
-            return replacementText.toString();
         }
 
         private String processLinkId(final String linkId, final String linkText)
@@ -306,7 +310,7 @@ public class Anchors implements TextConvertor
         }
     }
 
-    private class ReferenceShortcut implements Replacement
+    private class ReferenceShortcut implements AppendingReplacement
     {
         // Last, handle reference-style shortcuts: [link text]!
         // These must come last in case you've also got [link test][lt]
@@ -340,34 +344,34 @@ public class Anchors implements TextConvertor
                 + CLASS_REGEX_OPT, // BW
                 DOTALL);
 
-        private ReferenceShortcut()
+        private final ConversionContext context;
+
+        private ReferenceShortcut(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
-        public String process(final Matcher m)
+        public void appendTo(final Matcher m, final StringBuilder replacementText)
         {
-            final String replacementText;
-            final String wholeMatch = m.group();
             final String footnote = m.group("footnote");
             final String linkText = m.group("linkText");
-            final String targetTag = m.group("target") != null ? TARGET : "";
+            final String targetTag = m.group("target") != null ? context.getTarget() : "";
             final String id = m.group("id");
             // link id is now case sensitive
             final String linkId = linkText.replaceAll("[ ]?\\n", " "); // change embedded newlines into spaces
             final String classes = m.group("classes");
 
-            final LinkDefinition defn = linkDefinitions.get(linkId);
+            final LinkDefinition defn = context.getLinkDefinitions().get(linkId);
 
             if (defn != null)
             {
-                replacementText = processLinkDefinition(defn, classes, footnote, linkText, id, targetTag);
+                processLinkDefinition(defn, classes, footnote, linkText, id, targetTag,
+                        replacementText);
             } else
             {
-                replacementText = wholeMatch;
+                replacementText.append(m.group());
             }
-
-            return replacementText;
         }
 
         private void appendUrl(final String url, final StringBuilder replacementText)
@@ -405,8 +409,8 @@ public class Anchors implements TextConvertor
 
             if (footnote.find())
             {
-                rtn = doSubSup(
-                        new TextEditor("++" + CHAR_PROTECTOR.encode("[")
+                rtn = doSubSup(context,
+                        new TextEditor("++" + context.getCharProtector().encode("[")
                                 + (url != null ? linkText : "*") + "]++")
                 ).toString();
             }
@@ -419,27 +423,26 @@ public class Anchors implements TextConvertor
             return notBlank(id) ? addId(id) : idAttrib;
         }
 
-        private String processLinkDefinition(
+        private void processLinkDefinition(
                 final LinkDefinition defn,
                 final String classes,
                 final String footnote,
                 final String linkText,
                 final String id,
-                final String targetTag)
+                final String targetTag,
+                final StringBuilder replacementText)
         {
-            final StringBuilder replacementText = new StringBuilder("<a");
             final String url = processUrl(defn);
             final String classAtrib = addClass(defn.classes, classes);
-            final String titleTag = processTitle(defn);
+            final String titleTag = processTitle(context, defn);
             String idAttrib = "";
             final Ref<String> linkTextRef = Ref.val(linkText);
 
             idAttrib = processFootnote(footnote, linkTextRef, url, idAttrib, id);
+            replacementText.append("<a");
             appendUrl(url, replacementText);
             finalizeReplacementText(replacementText, idAttrib, classAtrib, titleTag,
                     targetTag, linkTextRef.val);
-
-            return replacementText.toString();
         }
 
         private String processUrl(final LinkDefinition defn)
@@ -448,7 +451,7 @@ public class Anchors implements TextConvertor
 
             if (url != null)
             {
-                url = protectEmphasis(url);
+                url = protectEmphasis(context, url);
             }
 
             return url;
@@ -39,6 +39,7 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -46,7 +47,6 @@ import java.util.regex.Pattern;
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.unEscapeSpecialChars;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addClass;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CLASS_REGEX_OPT;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.TARGET;
 import static java.util.regex.Pattern.compile;
 
 /**
@@ -107,21 +107,21 @@ public class AutoLinks implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        processLinks(text);
-        processEmails(text);
+        processLinks(context, text);
+        processEmails(context, text);
         return text;
     }
 
-    private void processEmails(final TextEditor text)
+    private void processEmails(final ConversionContext context, final TextEditor text)
     {
-        text.replaceAll(Email.PATTERN, new Email());
+        text.replaceAll(Email.PATTERN, new Email(context));
     }
 
-    private void processLinks(final TextEditor text)
+    private void processLinks(final ConversionContext context, final TextEditor text)
     {
-        text.replaceAll(Link.PATTERN, new Link());
+        text.replaceAll(Link.PATTERN, new Link(context));
     }
 
     private class Email implements Replacement
@@ -129,12 +129,19 @@ public class AutoLinks implements TextConvertor
         public static final Pattern PATTERN = compile(
                 "<([-.\\w]+\\@[-a-z0-9]+(?:\\.[-a-z0-9]+)*\\.[a-z]+)>");
 
+        private final ConversionContext context;
+
+        private Email(final ConversionContext context)
+        {
+            this.context = context;
+        }
+
         @Override
         public String process(final Matcher m)
         {
             final String address = m.group(1);
             final TextEditor ed = new TextEditor(address);
-            unEscapeSpecialChars(ed);
+            unEscapeSpecialChars(context, ed);
             final String addr = encodeEmail(ed.toString());
             final String url = encodeEmail("mailto:" + ed.toString());
             return "<a href=\"" + url + "\">" + addr + "</a>";
@@ -150,15 +157,18 @@ public class AutoLinks implements TextConvertor
                 + "(?<target>!)?"
                 + CLASS_REGEX_OPT);
 
-        private Link()
+        private final ConversionContext context;
+
+        private Link(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
         public String process(final Matcher m)
         {
             final String url = m.group("url");
-            final String targetTag = m.group("target") != null ? TARGET : "";
+            final String targetTag = m.group("target") != null ? context.getTarget() : "";
             final String classes = m.group("classes");
             final String classAtrib = classes != null && !classes.isBlank()
                     ? addClass(classes) : "";
@@ -37,17 +37,11 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
-import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.doAnchors;
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.runBlockGamut;
-import static com.bewsoftware.mdj.core.plugins.TextConvertor.replaceAll;
-import static java.util.regex.Pattern.DOTALL;
-import static java.util.regex.Pattern.MULTILINE;
-import static java.util.regex.Pattern.compile;
 
 /**
  * Build block-quotes, including cited block-quotes.
@@ -76,6 +70,11 @@ import static java.util.regex.Pattern.compile;
  * {@code id="cite01"}.
  * </li>
  * </ul>
+ * <p>
+ * The quoted text is run through the block gamut once more, one level of
+ * nesting at a time. Block-quotes nested deeper than
+ * {@link ConversionContext#getMaxQuoteLevel() the maximum quote level} are
+ * left as plain text.
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
@@ -84,113 +83,454 @@ import static java.util.regex.Pattern.compile;
  */
 public class BlockQuotes implements TextConvertor
 {
+    private static final String CITE_LINK = ")](#";
+
+    private static final int NOT_FOUND = -1;
+
     public BlockQuotes()
     {
     }
 
-    private static String deleteAll(final String text, final String regex)
+    private static void appendBlockQuote(
+            final ConversionContext context,
+            final QuoteScanner scanner,
+            final StringBuilder sb
+    )
+    {
+        final String citeText = processCitation(context, scanner);
+        final String blockQuote = processBlockQuote(context, scanner);
+
+        if (citeText.isBlank())
+        {
+            sb.append("<blockquote>\n").append(blockQuote).append("\n</blockquote>\n\n");
+        } else
+        {
+            sb.append("<div class=\"blockquote\">\n").append(blockQuote).append('\n')
+                    .append(citeText).append("</div>\n\n");
+        }
+    }
+
+    /**
+     * Copy the block-quote, dropping the '&gt;' from the start of each line,
+     * and emptying the lines left with nothing but spaces or tabs.
+     */
+    private static String cleanupBlockQuotedText(final String text, final int from, final int to)
+    {
+        final StringBuilder sb = new StringBuilder(to - from);
+        int i = from;
+
+        while (i < to)
+        {
+            int j = skipSpaces(text, i);
+
+            if (text.charAt(j) == '>')
+            {
+                j++;
+
+                if (text.charAt(j) == ' ' || text.charAt(j) == '\t')
+                {
+                    j++;
+                }
+
+                i = j;
+            }
+
+            j = skipSpaces(text, i);
+
+            if (j > i && text.charAt(j) == '\n')
+            {
+                i = j;
+            }
+
+            final int next = text.indexOf('\n', i) + 1;
+            sb.append(text, i, next);
+            i = next;
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Indent every line by two spaces.
+     */
+    private static String indentAllLines(final String text)
+    {
+        final int length = text.length();
+        final StringBuilder sb = new StringBuilder(length + (length >> 2) + 2);
+
+        for (int i = 0; i < length; i++)
+        {
+            if (isLineStart(text, i))
+            {
+                sb.append("  ");
+            }
+
+            sb.append(text.charAt(i));
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean isLineStart(final String text, final int i)
+    {
+        boolean rtn = i < text.length();
+
+        if (rtn && i > 0)
+        {
+            final char c = text.charAt(i - 1);
+            rtn = isLineTerminator(c) && !(c == '\r' && text.charAt(i) == '\n');
+        }
+
+        return rtn;
+    }
+
+    private static boolean isLineTerminator(final char c)
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isSpace(final char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Take back the indent from the start of each line of the
+     * {@code <pre>} blocks, and from the white space before them.
+     */
+    private static String outdentPreTagBlocks(final String text)
+    {
+        int pre = text.indexOf("<pre>");
+        int close;
+
+        if (pre == NOT_FOUND || (close = text.indexOf("</pre>", pre + 5)) == NOT_FOUND)
+        {
+            return text;
+        }
+
+        final StringBuilder sb = new StringBuilder(text.length());
+        int lastEnd = 0;
+
+        do
+        {
+            int start = pre;
+
+            while (start > lastEnd && isSpace(text.charAt(start - 1)))
+            {
+                start--;
+            }
+
+            final int end = close + 6;
+            sb.append(text, lastEnd, start);
+
+            for (int i = start; i < end; i++)
+            {
+                if ((i == start || isLineStart(text, i)) && i + 2 <= end
+                        && text.charAt(i) == ' ' && text.charAt(i + 1) == ' ')
+                {
+                    i++;
+                } else
+                {
+                    sb.append(text.charAt(i));
+                }
+            }
+
+            lastEnd = end;
+        } while ((pre = text.indexOf("<pre>", lastEnd)) != NOT_FOUND
+                && (close = text.indexOf("</pre>", pre + 5)) != NOT_FOUND);
+
+        sb.append(text, lastEnd, text.length());
+
+        return sb.toString();
+    }
+
+    private static String processBlockQuote(final ConversionContext context, final QuoteScanner scanner)
+    {
+        TextEditor blockQuote = new TextEditor(
+                cleanupBlockQuotedText(scanner.text, scanner.quoteStart, scanner.end));
+
+        context.incrementQuoteLevel();
+
+        try
+        {
+            blockQuote = runBlockGamut(context, blockQuote);
+        } finally
+        {
+            context.decrementQuoteLevel();
+        }
+
+        return outdentPreTagBlocks(indentAllLines(blockQuote.toString()));
+    }
+
+    private static String processCitation(final ConversionContext context, final QuoteScanner scanner)
+    {
+        //
+        // BW: Process citation link: [(<citeText)](<#link>)
+        //
+        String citeText = "";
+
+        if (scanner.quoteStart > scanner.start)
+        {
+            final String text = scanner.text;
+            final int link = text.indexOf(CITE_LINK, scanner.start);
+            final TextEditor te = new TextEditor(text.substring(scanner.start, link)
+                    + ")][@cite](#" + text.substring(link + CITE_LINK.length(), scanner.quoteStart));
+
+            citeText = "  " + doAnchors(context, te).toString();
+        }
+
+        return citeText;
+    }
+
+    private static int skipSpaces(final String text, final int from)
     {
-        return replaceAll(text, regex, "");
+        int i = from;
+
+        while (text.charAt(i) == ' ' || text.charAt(i) == '\t')
+        {
+            i++;
+        }
+
+        return i;
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        return text.replaceAll(BlockQuote.PATTERN, new BlockQuote());
+        if (context.getQuoteLevel() < context.getMaxQuoteLevel())
+        {
+            final String s = text.toString();
+            final QuoteScanner scanner = new QuoteScanner(s);
+
+            if (scanner.find(0))
+            {
+                final StringBuilder sb = new StringBuilder(s.length() + (s.length() >> 1));
+                int lastEnd = 0;
+
+                do
+                {
+                    sb.append(s, lastEnd, scanner.start);
+                    appendBlockQuote(context, scanner, sb);
+                    lastEnd = scanner.end;
+                } while (scanner.find(lastEnd));
+
+                sb.append(s, lastEnd, s.length());
+                text.setText(sb);
+            }
+        }
+
+        return text;
     }
 
-    private class BlockQuote implements Replacement
+    /**
+     * Finds the block-quotes in a text.
+     * <p>
+     * A block-quote starts on a line with a '&gt;', after any spaces or tabs,
+     * and some text after it. It takes in all of the following lines, up to a
+     * blank line. It then takes in any blank lines, and goes on if the next
+     * line also starts with a '&gt;'.
+     * <p>
+     * It may follow a citation link: {@code [(Cade, 2015)](#cite01)}, which
+     * ends its line.
+     * <p>
+     * Lines are broken as {@link java.util.regex.Pattern#MULTILINE} breaks
+     * them. However, only a '\n' will end a line of the block-quote.
+     */
+    private static class QuoteScanner
     {
-        public static final Pattern PATTERN = compile(
-                // Citation link: [(Cade, 2015)](#cite01)
-                "(?<citetext>\\[\\([A-Z][^\\)]*?\\)\\]\\(#[^\\)]+\\)[ ]*\\n)?"
-                + "(?<blockquote>("
-                + "^[ \t]*>[ \t]?"
-                // > at the start of a line
-                + ".+\\n"
-                // rest of the first line
-                + "(.+\\n)*"
-                // subsequent consecutive lines
-                + "\\n*"
-                // blanks
-                + ")+"
-                + ")", MULTILINE);
+        private int citeClose = NOT_FOUND;
+
+        private int citeEnd = NOT_FOUND;
+
+        private int citeQuoteEnd = NOT_FOUND;
+
+        private int end;
+
+        private final int length;
 
-        private BlockQuote()
+        private int parenAt = NOT_FOUND;
+
+        private int parenFrom = Integer.MAX_VALUE;
+
+        private int quoteStart;
+
+        private int start;
+
+        private final String text;
+
+        private QuoteScanner(final String text)
         {
+            this.text = text;
+            this.length = text.length();
         }
 
-        @Override
-        public String process(final Matcher m)
+        /**
+         * Find the next block-quote, at or after {@code from}.
+         *
+         * @return {@code true} if found.
+         */
+        private boolean find(final int from)
         {
-            String rtn;
-            final String citeText = processCitation(m);
-            final TextEditor blockQuote = processBlockQuote(m);
+            boolean rtn = false;
 
-            if (citeText.isBlank())
+            for (int i = from; !rtn && i < length; i++)
             {
-                rtn = "<blockquote>\n" + blockQuote + "\n</blockquote>\n\n";
-            } else
+                if (text.charAt(i) == '[')
+                {
+                    rtn = matchCitation(i);
+                } else if (isLineStart(text, i) && (end = quoteEnd(i)) != NOT_FOUND)
+                {
+                    quoteStart = i;
+                    rtn = true;
+                }
+
+                start = i;
+            }
+
+            return rtn;
+        }
+
+        /**
+         * The end of the citation link whose text ends at {@code close},
+         * including the '\n'.
+         */
+        private int citationEnd(final int close)
+        {
+            int rtn = NOT_FOUND;
+
+            if (text.startsWith(CITE_LINK, close))
             {
-                rtn = "<div class=\"blockquote\">\n" + blockQuote + "\n" + citeText + "</div>\n\n";
+                final int linkEnd = text.indexOf(')', close + CITE_LINK.length());
+
+                if (linkEnd > close + CITE_LINK.length())
+                {
+                    int i = linkEnd + 1;
+
+                    while (i < length && text.charAt(i) == ' ')
+                    {
+                        i++;
+                    }
+
+                    if (i < length && text.charAt(i) == '\n')
+                    {
+                        rtn = i + 1;
+                    }
+                }
             }
 
             return rtn;
         }
 
-        private void cleanupBlockQuotedText(final TextEditor blockQuote)
+        /**
+         * The position of the next ')', which may be on a following line.
+         */
+        private int closingParen(final int from)
         {
-            blockQuote.deleteAll("^[ \t]*>[ \t]?");
-            blockQuote.deleteAll("^[ \t]+$");
+            if (from < parenFrom || (parenAt != NOT_FOUND && from > parenAt))
+            {
+                parenAt = text.indexOf(')', from);
+                parenFrom = from;
+            }
+
+            return parenAt;
         }
 
-        private void indentAllLines(final TextEditor blockQuote)
+        /**
+         * The end of the line, including its '\n', if it has some text.
+         */
+        private int lineEnd(final int from)
         {
-            blockQuote.replaceAll("^", "  ");
+            int i = from;
+
+            while (i < length && !isLineTerminator(text.charAt(i)))
+            {
+                i++;
+            }
+
+            return i > from && i < length && text.charAt(i) == '\n' ? i + 1 : NOT_FOUND;
         }
 
-        private TextEditor outdentPreTagBlocks(final TextEditor blockQuote)
+        /**
+         * Is there a citation link at {@code from}, followed by a
+         * block-quote?
+         * <p>
+         * Every citation with the same closing ')' has the same end, and so
+         * the result is kept for the next one.
+         */
+        private boolean matchCitation(final int from)
         {
-            final Pattern p1 = compile("(\\s*<pre>.*?</pre>)", DOTALL);
+            boolean rtn = false;
 
-            final TextEditor rtn = blockQuote.replaceAll(p1, (final Matcher m1) ->
+            if (from + 2 < length && text.charAt(from + 1) == '('
+                    && text.charAt(from + 2) >= 'A' && text.charAt(from + 2) <= 'Z')
             {
-                String pre = m1.group(1);
-                return deleteAll(pre, "^  ");
-            });
+                final int close = closingParen(from + 3);
+
+                if (close != NOT_FOUND)
+                {
+                    if (close != citeClose)
+                    {
+                        citeClose = close;
+                        citeEnd = citationEnd(close);
+                        citeQuoteEnd = citeEnd != NOT_FOUND && citeEnd < length
+                                ? quoteEnd(citeEnd) : NOT_FOUND;
+                    }
+
+                    if (citeQuoteEnd != NOT_FOUND)
+                    {
+                        quoteStart = citeEnd;
+                        end = citeQuoteEnd;
+                        rtn = true;
+                    }
+                }
+            }
 
             return rtn;
         }
 
-        private TextEditor processBlockQuote(final Matcher m)
+        /**
+         * The end of the block-quote starting at the line start:
+         * {@code from}.
+         */
+        private int quoteEnd(final int from)
         {
-            TextEditor blockQuote = new TextEditor(m.group("blockquote"));
-            cleanupBlockQuotedText(blockQuote);
-            blockQuote = runBlockGamut(blockQuote);
-            indentAllLines(blockQuote);
-            blockQuote = outdentPreTagBlocks(blockQuote);
+            int rtn = NOT_FOUND;
+            int i = from;
+            int next;
 
-            return blockQuote;
+            while (i < length && (next = quotedLineEnd(i)) != NOT_FOUND)
+            {
+                i = next;
+
+                while ((next = lineEnd(i)) != NOT_FOUND)
+                {
+                    i = next;
+                }
+
+                while (i < length && text.charAt(i) == '\n')
+                {
+                    i++;
+                }
+
+                rtn = i;
+            }
+
+            return rtn;
         }
 
-        private String processCitation(final Matcher m)
+        /**
+         * The end of the line starting with a '&gt;', and some text after it.
+         */
+        private int quotedLineEnd(final int from)
         {
-            //
-            // BW: Process citation link: [(<citeText)](<#link>)
-            //
-            String citeText = m.group("citetext");
+            int i = from;
 
-            if (citeText != null && !citeText.isBlank())
-            {
-                TextEditor te = new TextEditor(citeText)
-                        .replaceAllLiteral("\\)\\]\\(#", ")][@cite](#");
-                citeText = "  " + doAnchors(te).toString();
-            } else
+            while (i < length && (text.charAt(i) == ' ' || text.charAt(i) == '\t'))
             {
-                citeText = "";
+                i++;
             }
 
-            return citeText;
+            return i < length && text.charAt(i) == '>' ? lineEnd(i + 1) : NOT_FOUND;
         }
     }
 }
@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * CleanupMarkdownText class description.
@@ -54,7 +55,7 @@ public class CleanupMarkdownText implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         // Standardize line endings:
         text.replaceAll("\\r\\n", "\n"); 	// DOS to Unix
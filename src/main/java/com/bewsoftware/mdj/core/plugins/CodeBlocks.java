@@ -39,6 +39,7 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
 import com.bewsoftware.mdj.core.plugins.replacements.CodeBlock;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.regex.Pattern;
 
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.LANG_IDENTIFIER;
@@ -63,7 +64,7 @@ public class CodeBlocks implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         /*
          * If there are any Fenced Code Blocks, they will have been protected
@@ -81,6 +82,6 @@ public class CodeBlocks implements TextConvertor
                 + "(?:^(?:> )*?[ ]{4}).*\\n+)+)"
                 + "(?:(?=^\\n+)|\\Z)", MULTILINE);
 
-        return text.replaceAll(pattern, new CodeBlock(false));
+        return text.replaceAll(pattern, new CodeBlock(context, false));
     }
 }
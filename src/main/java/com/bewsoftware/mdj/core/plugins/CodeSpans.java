@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.regex.Matcher;
 
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.encodeCode;
@@ -58,7 +59,7 @@ public class CodeSpans implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         return text.replaceAll(compile("(?<!\\\\)(`+)(.+?)(?<!`)\\1(?!`)"),
                 (final Matcher m) ->
@@ -66,7 +67,7 @@ public class CodeSpans implements TextConvertor
             final String code = m.group(2);
             final TextEditor subEditor = new TextEditor(code);
             subEditor.deleteAll("^[ \\t]+").deleteAll("[ \\t]+$");
-            encodeCode(subEditor);
+            encodeCode(context, subEditor);
             return "<code>" + subEditor.toString() + "</code>";
         });
     }
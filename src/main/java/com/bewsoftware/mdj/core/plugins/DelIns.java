@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * DelIns class description.
@@ -54,7 +55,7 @@ public class DelIns implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         text.replaceAll("(-!)(?=\\S)(.+?)(?<=\\S)!", "<del>$2</del>");
         text.replaceAll("(\\+!)(?=\\S)(.+?)(?<=\\S)!", "<ins>$2</ins>");
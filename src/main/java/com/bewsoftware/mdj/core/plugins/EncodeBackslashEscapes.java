@@ -37,9 +37,10 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
+import com.bewsoftware.mdj.core.MultiLiteralReplacer;
 import com.bewsoftware.mdj.core.TextEditor;
-
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
 
 /**
  * EncodeBackslashEscapes class description.
@@ -55,33 +56,37 @@ public class EncodeBackslashEscapes implements TextConvertor
     {
     }
 
-    private static TextEditor encodeEscapes(
-            final TextEditor text,
-            final char[] chars,
-            final String slashes)
+    /**
+     * Build the replacement table, once per conversion.
+     */
+    private static MultiLiteralReplacer buildReplacer(final CharacterProtector charProtector)
+    {
+        final char[] escapableChars = "`_>!*{}[]()#+-.".toCharArray();
+        final MultiLiteralReplacer replacer = new MultiLiteralReplacer();
+
+        // Two backslashes in a row
+        replacer.add("\\\\", charProtector.encode("\\"));
+
+        return encodeEscapes(charProtector, replacer, escapableChars);
+    }
+
+    private static MultiLiteralReplacer encodeEscapes(
+            final CharacterProtector charProtector,
+            final MultiLiteralReplacer replacer,
+            final char[] chars)
     {
         for (char ch : chars)
         {
-            final String regex = slashes + ch;
-            text.replaceAllLiteral(regex, CHAR_PROTECTOR.encode(String.valueOf(ch)));
+            replacer.add("\\" + ch, charProtector.encode(String.valueOf(ch)));
         }
 
-        return text;
+        return replacer;
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        final char[] normalChars = "`_>!".toCharArray();
-        final char[] escapedChars = "*{}[]()#+-.".toCharArray();
-
-        // Two backslashes in a row
-        text.replaceAllLiteral("\\\\\\\\", CHAR_PROTECTOR.encode("\\"));
-
-        // Normal characters don't require a backslash in the regular expression
-        encodeEscapes(text, normalChars, "\\\\");
-        encodeEscapes(text, escapedChars, "\\\\\\");
-
-        return text;
+        return text.replaceAll(context.getReplacer(EncodeBackslashEscapes.class,
+                EncodeBackslashEscapes::buildReplacer));
     }
 }
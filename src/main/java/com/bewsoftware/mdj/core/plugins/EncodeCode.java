@@ -37,9 +37,10 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
+import com.bewsoftware.mdj.core.MultiLiteralReplacer;
 import com.bewsoftware.mdj.core.TextEditor;
-
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
 
 /**
  * EncodeCode class description.
@@ -55,27 +56,34 @@ public class EncodeCode implements TextConvertor
     {
     }
 
-    @Override
-    public TextEditor execute(final TextEditor text)
+    /**
+     * Build the replacement table, once per conversion.
+     */
+    private static MultiLiteralReplacer buildReplacer(final CharacterProtector charProtector)
     {
-        text.replaceAll("\\\\&", CHAR_PROTECTOR.encode("&"));
-        text.replaceAll("--", CHAR_PROTECTOR.encode("--"));
-        text.replaceAll("\\+\\+", CHAR_PROTECTOR.encode("++"));
-        text.replaceAll("\\-!", CHAR_PROTECTOR.encode("-!"));
-        text.replaceAll("\\+!", CHAR_PROTECTOR.encode("+!"));
-        text.replaceAll("&", "&amp;");
-        text.replaceAll("<", "&lt;");
-        text.replaceAll(">", "&gt;");
-        text.replaceAll("\\*", CHAR_PROTECTOR.encode("*"));
-        text.replaceAll("_", CHAR_PROTECTOR.encode("_"));
-        text.replaceAll("\\{", CHAR_PROTECTOR.encode("{"));
-        text.replaceAll("\\}", CHAR_PROTECTOR.encode("}"));
-        text.replaceAll("\\x5C\\x5C\\x5B", CHAR_PROTECTOR.encode("["));
-        text.replaceAll("\\[", CHAR_PROTECTOR.encode("["));
-        text.replaceAll("\\]", CHAR_PROTECTOR.encode("]"));
-        text.replaceAll("\\x5C\\x7C", CHAR_PROTECTOR.encode("|"));
-        text.replaceAll("\\\\", CHAR_PROTECTOR.encode("\\"));
+        return new MultiLiteralReplacer()
+                .add("\\&", charProtector.encode("&"))
+                .add("--", charProtector.encode("--"))
+                .add("++", charProtector.encode("++"))
+                .add("-!", charProtector.encode("-!"))
+                .add("+!", charProtector.encode("+!"))
+                .add("&", "&amp;")
+                .add("<", "&lt;")
+                .add(">", "&gt;")
+                .add("*", charProtector.encode("*"))
+                .add("_", charProtector.encode("_"))
+                .add("{", charProtector.encode("{"))
+                .add("}", charProtector.encode("}"))
+                .add("\\\\[", charProtector.encode("["))
+                .add("[", charProtector.encode("["))
+                .add("]", charProtector.encode("]"))
+                .add("\\|", charProtector.encode("|"))
+                .add("\\", charProtector.encode("\\"));
+    }
 
-        return text;
+    @Override
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
+    {
+        return text.replaceAll(context.getReplacer(EncodeCode.class, EncodeCode::buildReplacer));
     }
 }
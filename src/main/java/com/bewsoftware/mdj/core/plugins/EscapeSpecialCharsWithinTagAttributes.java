@@ -39,9 +39,9 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.HTMLToken;
 import com.bewsoftware.mdj.core.TextEditor;
-import java.util.Collection;
-
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
+import java.util.Iterator;
 
 /**
  * Escape special characters within tags.
@@ -66,26 +66,37 @@ public class EscapeSpecialCharsWithinTagAttributes implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        final Collection<HTMLToken> tokens = text.tokenizeHTML();
-        final TextEditor newText = new TextEditor("");
+        final Iterator<HTMLToken> tokens = text.htmlTokens();
+        final CharacterProtector charProtector = context.getCharProtector();
+        TextEditor newText = null;
 
-        tokens.stream().map(token ->
+        while (tokens.hasNext())
         {
+            final HTMLToken token = tokens.next();
             String value = token.text;
 
             if (token.isTag)
             {
-                value = value.replaceAll("\\\\", CHAR_PROTECTOR.encode("\\"));
-                value = value.replaceAll("`", CHAR_PROTECTOR.encode("`"));
-                value = value.replaceAll("\\*", CHAR_PROTECTOR.encode("*"));
-                value = value.replaceAll("_", CHAR_PROTECTOR.encode("_"));
+                value = value.replace("\\", charProtector.encode("\\"));
+                value = value.replace("`", charProtector.encode("`"));
+                value = value.replace("*", charProtector.encode("*"));
+                value = value.replace("_", charProtector.encode("_"));
+            } else if (!tokens.hasNext() && newText == null)
+            {
+                // No tags at all, so nothing to change.
+                return text;
+            }
+
+            if (newText == null)
+            {
+                newText = new TextEditor("");
             }
 
-            return value;
-        }).forEachOrdered(value -> newText.append(value));
+            newText.append(value);
+        }
 
-        return newText;
+        return newText == null ? text : newText;
     }
 }
@@ -35,6 +35,7 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
 import com.bewsoftware.mdj.core.plugins.replacements.CodeBlock;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.regex.Pattern;
 
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.ID_REGEX_OPT;
@@ -140,7 +141,7 @@ public class FencedCodeBlocks implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         final Pattern pattern = compile("(?<frontFence>^(?:[~]{3}|[`]{3}))"
                 + ID_REGEX_OPT
@@ -150,6 +151,6 @@ public class FencedCodeBlocks implements TextConvertor
                 + "(?<body>(?:.*?\\n+)+?)"
                 + "(?:\\k<frontFence>)[ ]*\\n", MULTILINE);
 
-        return text.replaceAll(pattern, new CodeBlock(true));
+        return text.replaceAll(pattern, new CodeBlock(context, true));
     }
 }
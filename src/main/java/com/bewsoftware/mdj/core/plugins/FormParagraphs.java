@@ -39,20 +39,34 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.annotations.jcip.Immutable;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.runSpanGamut;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.unEscapeSpecialChars;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addClass;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addId;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CLASS_REGEX_OPT;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CODE_BLOCK_BEGIN;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CODE_BLOCK_END;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.HTML_PROTECTOR;
 import static java.util.regex.Pattern.compile;
 
 /**
  * FormParagraphs class description.
+ * <p>
+ * If the context has a {@link ConversionContext#getParagraphExecutor()
+ * paragraph executor}, the span level processing of the paragraphs is run
+ * on it, and the finished paragraphs are joined back together in order.
+ * Unless the context also has a pipeline listener, which is only ever told
+ * about plugins on the converting thread.
+ * By then, the link definitions have been stripped, so each paragraph is
+ * independent of the rest. Each is given its own
+ * {@link ConversionContext#forParagraph() context}.
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
@@ -67,6 +81,101 @@ public class FormParagraphs implements TextConvertor
     {
     }
 
+    /**
+     * Run the span gamut over a paragraph, and wrap it in its
+     * {@code <p>} tag.
+     *
+     * @param context   the current conversion.
+     * @param paragraph to process.
+     *
+     * @return the finished paragraph, or the HTML block it stands in for.
+     */
+    private static String formParagraph(final ConversionContext context, final String paragraph)
+    {
+        final String decoded = context.getHtmlProtector().decode(paragraph);
+
+        if (decoded != null)
+        {
+            return decoded;
+        }
+
+        final String text = runSpanGamut(context, new TextEditor(paragraph)).toString();
+
+        //
+        // Changed Tag to include "class" attribute.
+        //
+        // Bradley Willcott (03/01/2021)
+        final Tag tag = tag(text);
+
+        return "<p" + tag.id + tag.classes + ">" + tag.text + "</p>";
+    }
+
+    /**
+     * Hand all of the paragraphs to the {@code executor}, then collect them,
+     * in order, as they are finished.
+     *
+     * @param context    the current conversion.
+     * @param paragraphs the paragraphs, replaced by the finished ones.
+     * @param executor   where the paragraphs are to be processed.
+     * @param streaming  {@code true} to write out each paragraph as soon as
+     *                   it, and all those before it, are finished.
+     */
+    private static void formParagraphs(
+            final ConversionContext context,
+            final String[] paragraphs,
+            final Executor executor,
+            final boolean streaming
+    )
+    {
+        final List<CompletableFuture<String>> results = new ArrayList<>(paragraphs.length);
+
+        for (final String paragraph : paragraphs)
+        {
+            final ConversionContext paragraphContext = context.forParagraph();
+
+            results.add(CompletableFuture.supplyAsync(() -> formParagraph(paragraphContext, paragraph), executor));
+        }
+
+        try
+        {
+            for (int i = 0; i < paragraphs.length; i++)
+            {
+                paragraphs[i] = join(results.get(i));
+
+                if (streaming)
+                {
+                    writeParagraph(context, paragraphs, i);
+                }
+            }
+        } catch (RuntimeException | Error ex)
+        {
+            results.forEach(result -> result.cancel(false));
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for a paragraph, throwing whatever its processing threw.
+     */
+    private static String join(final CompletableFuture<String> result)
+    {
+        try
+        {
+            return result.join();
+        } catch (CompletionException ex)
+        {
+            if (ex.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            } else if (ex.getCause() instanceof Error cause)
+            {
+                throw cause;
+            }
+
+            throw ex;
+        }
+    }
+
     /**
      * Return a Tag containing any Id and/or classes.
      * <p>
@@ -106,7 +215,7 @@ public class FormParagraphs implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         text.deleteAll("\\A\\n+");
         text.deleteAll("\\n+\\z");
@@ -123,30 +232,60 @@ public class FormParagraphs implements TextConvertor
             paragraphs = compile("\\n{2,}").split(text.toString());
         }
 
-        for (int i = 0; i < paragraphs.length; i++)
-        {
-            String paragraph = paragraphs[i];
-            final String decoded = HTML_PROTECTOR.decode(paragraph);
+        final boolean streaming = context.isStreaming() && context.getBlockLevel() == 1;
+        final Executor executor = context.getParagraphExecutor();
 
-            if (decoded != null)
-            {
-                paragraphs[i] = decoded;
-            } else
+        if (executor != null && paragraphs.length > 1 && context.getPipelineListener() == null)
+        {
+            formParagraphs(context, paragraphs, executor, streaming);
+        } else
+        {
+            for (int i = 0; i < paragraphs.length; i++)
             {
-                paragraph = runSpanGamut(new TextEditor(paragraph)).toString();
-
-                //
-                // Changed Tag to include "class" attribute.
-                //
-                // Bradley Willcott (03/01/2021)
-                final Tag tag = tag(paragraph);
-                paragraphs[i] = "<p" + tag.id + tag.classes + ">" + tag.text + "</p>";
+                paragraphs[i] = formParagraph(context, paragraphs[i]);
+
+                if (streaming)
+                {
+                    writeParagraph(context, paragraphs, i);
+                }
             }
         }
 
+        if (streaming)
+        {
+            return new TextEditor("");
+        }
+
         return new TextEditor(String.join("\n\n", paragraphs));
     }
 
+    /**
+     * Write out a finished top-level paragraph, rather than waiting to join
+     * it into the whole document.
+     * <p>
+     * The special characters are un-escaped here, as
+     * {@link com.bewsoftware.mdj.MarkdownProcessor#convert(java.lang.CharSequence, java.lang.Appendable)
+     * convert()} will not see this text again.
+     *
+     * @param context    the current conversion.
+     * @param paragraphs the paragraphs.
+     * @param index      the index of the finished paragraph.
+     */
+    private static void writeParagraph(
+            final ConversionContext context,
+            final String[] paragraphs,
+            final int index
+    )
+    {
+        if (index > 0)
+        {
+            context.write("\n\n");
+        }
+
+        context.write(unEscapeSpecialChars(context, new TextEditor(paragraphs[index])).toString());
+        paragraphs[index] = null;
+    }
+
     /**
      * Used by {@link #tag(java.lang.String) tag()}.
      *
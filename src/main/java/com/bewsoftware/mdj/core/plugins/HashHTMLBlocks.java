@@ -37,15 +37,18 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
-import com.bewsoftware.mdj.core.Replacement;
+import com.bewsoftware.mdj.core.AppendingReplacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.HTML_PROTECTOR;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.TAB_WIDTH;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
-import static java.util.regex.Pattern.MULTILINE;
 import static java.util.regex.Pattern.compile;
 
 /**
@@ -55,6 +58,10 @@ import static java.util.regex.Pattern.compile;
  * '{@literal <} p{@literal >} 's around "paragraphs" that are wrapped in
  * non-block-level tags, such as anchors, phrase emphasis, and spans.
  * The list of tags we're looking for is hard-coded.
+ * <p>
+ * The blocks are found a line at a time, by {@link BlockScanner}, rather
+ * than by regular expressions, so that the time taken does not grow with
+ * the square of the number of blocks.
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
@@ -65,6 +72,40 @@ public class HashHTMLBlocks implements TextConvertor
 {
     private static final int LESS_THAN_TAB = TAB_WIDTH - 1;
 
+    // Special case for standalone HTML comments:
+    private static final Pattern COMMENT = compile("(?:"
+            + "(?<=\\n\\n)"
+            + "|"
+            + "\\A\\n?"
+            + ")"
+            + "("
+            + "[ ]{0," + LESS_THAN_TAB + "}"
+            + "(?s:"
+            + "<!"
+            + "(--.*?--\\s*)+"
+            + ">"
+            + ")"
+            + "[ ]*"
+            + "(?=\\n{2,}|\\Z)"
+            + ")");
+
+    // Special case for <hr>
+    private static final Pattern HR = compile("(?:"
+            + "(?<=\\n\\n)"
+            + "|"
+            + "\\A\\n?"
+            + ")"
+            + "("
+            + "[ ]{0," + LESS_THAN_TAB + "}"
+            + "<(hr)"
+            + "\\b"
+            + "([^<>])*?"
+            + "/?>"
+            + "[ ]*"
+            + "(?=\\n{2,}|\\Z))", CASE_INSENSITIVE);
+
+    private static final int NOT_FOUND = -1;
+
     /*
      */
     private static final String[] TAGS_A =
@@ -74,22 +115,53 @@ public class HashHTMLBlocks implements TextConvertor
         "dl", "ol", "ul", "script", "noscript", "form", "fieldset", "iframe", "math"
     };
 
-    private static final String ALTERNATION_A = String.join("|", TAGS_A);
-
     private static final String[] TAGS_B =
     {
         "ins", "del"
     };
 
-    private static final String ALTERNATION_B = ALTERNATION_A + "|" + String.join("|", TAGS_B);
+    private static final String[] TAGS_A_AND_B = concat(TAGS_A, TAGS_B);
 
     public HashHTMLBlocks()
     {
     }
 
+    private static String[] concat(final String[] a, final String[] b)
+    {
+        final String[] rtn = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, rtn, a.length, b.length);
+        return rtn;
+    }
+
+    private static boolean hasTag(final String text, final String name)
+    {
+        for (int i = text.indexOf('<'); i != NOT_FOUND; i = text.indexOf('<', i + 1))
+        {
+            if (text.regionMatches(true, i + 1, name, 0, name.length()))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void protect(
+            final CharacterProtector htmlProtector,
+            final CharSequence literal,
+            final StringBuilder sb
+    )
+    {
+        sb.append("\n\n").append(htmlProtector.encode(literal.toString())).append("\n\n");
+    }
+
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
+        final CharacterProtector htmlProtector = context.getHtmlProtector();
+        final AppendingReplacement protectHTML
+                = (Matcher m, StringBuilder sb) -> protect(htmlProtector, m.group(), sb);
+
         // First, look for nested blocks, e.g.:
         //   <div>
         //       <div>
@@ -101,64 +173,485 @@ public class HashHTMLBlocks implements TextConvertor
         // the inner nested divs must be indented.
         // We need to do this before the next, more liberal match, because the next
         // match will start at the first `<div>` and stop at the first `</div>`.
-        final Pattern p1 = compile("(?:^<(" + ALTERNATION_B + ")\\b[^>]*>\n"
-                + "(?:.*\\n)*?"
-                + "^</\\1>[ ]*"
-                + "(?=\\n+|\\Z))", MULTILINE | CASE_INSENSITIVE);
-
-        final Replacement protectHTML = (Matcher m) ->
-        {
-            String literal = m.group();
-            return "\n\n" + HTML_PROTECTOR.encode(literal) + "\n\n";
-        };
-
-        text.replaceAll(p1, protectHTML);
-
-        // Now match more liberally, simply from `\n<tag>` to `</tag>\n`
-        final Pattern p2 = compile("(?:^<(" + ALTERNATION_A + ")\\b[^>]*>"
-                + "(((?!(<\\1|</\\1)).)*\\n)*?"
-                + ".*</\\1\\b[^>]*>[ ]*"
-                + "(?=\\n+|\\Z))", MULTILINE | CASE_INSENSITIVE);
-        do
-        {
-            text.replaceAll(p2, protectHTML);
-        } while (text.wasFound());
-
-        // Special case for <hr>
-        final Pattern p3 = compile("(?:"
-                + "(?<=\\n\\n)"
-                + "|"
-                + "\\A\\n?"
-                + ")"
-                + "("
-                + "[ ]{0," + LESS_THAN_TAB + "}"
-                + "<(hr)"
-                + "\\b"
-                + "([^<>])*?"
-                + "/?>"
-                + "[ ]*"
-                + "(?=\\n{2,}|\\Z))", CASE_INSENSITIVE);
-        text.replaceAll(p3, protectHTML);
-
-        // Special case for standalone HTML comments:
-        final Pattern p4 = compile("(?:"
-                + "(?<=\\n\\n)"
-                + "|"
-                + "\\A\\n?"
-                + ")"
-                + "("
-                + "[ ]{0," + LESS_THAN_TAB + "}"
-                + "(?s:"
-                + "<!"
-                + "(--.*?--\\s*)+"
-                + ">"
-                + ")"
-                + "[ ]*"
-                + "(?=\\n{2,}|\\Z)"
-                + ")");
-        text.replaceAll(p4, protectHTML);
+        hashBlocks(htmlProtector, text, true, null);
+
+        // Now match more liberally, simply from `\n<tag>` to `</tag>\n`.
+        //
+        // A block that holds another of its own kind fails to match, until
+        // the inner block has been hashed. So we go round again, but only
+        // for those blocks that failed.
+        List<Integer> retry = hashBlocks(htmlProtector, text, false, null);
+
+        while (retry != null)
+        {
+            retry = hashBlocks(htmlProtector, text, false, retry);
+        }
+
+        // These two can only match at a '<!', or a '<hr', which are rare
+        // enough to be worth looking for first.
+        final String s = text.toString();
+
+        if (hasTag(s, "hr"))
+        {
+            text.replaceAll(HR, protectHTML);
+        }
+
+        if (s.contains("<!"))
+        {
+            text.replaceAll(COMMENT, protectHTML);
+        }
 
         return text;
     }
 
+    /**
+     * Hash each of the blocks found in one pass over the text.
+     *
+     * @param htmlProtector To hash the blocks with.
+     * @param text          To search, and update.
+     * @param nested        {@code true} for the nested blocks,
+     *                      {@code false} for the liberal ones.
+     * @param starts        The only line starts to try, or {@code null} for
+     *                      all of them.
+     *
+     * @return the start of each block that failed to match, in the new text,
+     *         or {@code null} if no blocks were found.
+     */
+    private List<Integer> hashBlocks(
+            final CharacterProtector htmlProtector,
+            final TextEditor text,
+            final boolean nested,
+            final List<Integer> starts
+    )
+    {
+        final String s = text.toString();
+        final BlockScanner scanner = new BlockScanner(s, nested ? TAGS_A_AND_B : TAGS_A);
+        final List<Integer> failed = new ArrayList<>();
+        StringBuilder sb = null;
+        int lastEnd = 0;
+        int next = 0;
+        int i = starts == null ? 0 : starts.isEmpty() ? s.length() : starts.get(next);
+
+        while (i < s.length())
+        {
+            final int tag = i < lastEnd ? NOT_FOUND : scanner.openingTag(i);
+
+            if (tag != NOT_FOUND)
+            {
+                final int end = nested ? scanner.matchNested(i, tag) : scanner.matchLiberal(i, tag);
+
+                if (end != NOT_FOUND)
+                {
+                    if (sb == null)
+                    {
+                        sb = new StringBuilder(s.length());
+                    }
+
+                    sb.append(s, lastEnd, i);
+                    protect(htmlProtector, s.subSequence(i, end), sb);
+                    lastEnd = end;
+                } else
+                {
+                    failed.add((sb == null ? 0 : sb.length()) + i - lastEnd);
+                }
+            }
+
+            if (starts == null)
+            {
+                i = scanner.nextLineStart(Math.max(i, lastEnd));
+            } else
+            {
+                i = ++next < starts.size() ? starts.get(next) : s.length();
+            }
+        }
+
+        if (sb == null)
+        {
+            return null;
+        }
+
+        text.setText(sb.append(s, lastEnd, s.length()));
+
+        return failed;
+    }
+
+    /**
+     * Finds the HTML blocks in a snapshot of the text.
+     * <p>
+     * A block starts with one of the tags at the start of a line. It runs,
+     * a line at a time, to the matching closing tag:
+     * <ul>
+     * <li><b>nested</b> - at the start of a line, by itself. Anything,
+     * including other blocks, may come in between.</li>
+     * <li><b>liberal</b> - the last one on a line, followed only by spaces.
+     * No other opening or closing tag of the same name may come in
+     * between.</li>
+     * </ul>
+     * Tag names are matched without regard to case.
+     */
+    private static class BlockScanner
+    {
+        /**
+         * The start of the last liberal block content, for each tag, that
+         * failed to match.
+         */
+        private final int[] failedLiberal;
+
+        /**
+         * The line at which the nested block content, for each tag, failed.
+         */
+        private final int[] failedNestedAt;
+
+        /**
+         * The start of the nested block content, for each tag, that failed.
+         */
+        private final int[] failedNestedFrom;
+
+        /**
+         * The first {@code '>'} at, or after, {@link #gtFrom}.
+         */
+        private int gtAt = NOT_FOUND;
+
+        private int gtFrom = Integer.MAX_VALUE;
+
+        private final int length;
+
+        private final String[] tags;
+
+        private final String text;
+
+        private BlockScanner(final String text, final String[] tags)
+        {
+            this.text = text;
+            this.tags = tags;
+            length = text.length();
+            failedLiberal = new int[tags.length];
+            failedNestedAt = new int[tags.length];
+            failedNestedFrom = new int[tags.length];
+            Arrays.fill(failedLiberal, NOT_FOUND);
+            Arrays.fill(failedNestedFrom, Integer.MAX_VALUE);
+        }
+
+        private static boolean isLineTerminator(final char c)
+        {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+
+        /**
+         * Is there a closing tag at the start of this line, followed only by
+         * spaces?
+         *
+         * @return the end of the spaces, or {@link #NOT_FOUND}.
+         */
+        private int closingLine(final int lineStart, final int tag)
+        {
+            final int nameEnd = lineStart + 2 + tags[tag].length();
+            int rtn = NOT_FOUND;
+
+            if (text.startsWith("</", lineStart) && hasName(lineStart + 2, tag)
+                    && nameEnd < length && text.charAt(nameEnd) == '>')
+            {
+                final int end = skipSpaces(nameEnd + 1);
+
+                if (isBlockEnd(end))
+                {
+                    rtn = end;
+                }
+            }
+
+            return rtn;
+        }
+
+        /**
+         * Is there a closing tag on this line, followed only by spaces?
+         * If there is more than one, the last one wins.
+         *
+         * @return the end of the spaces, or {@link #NOT_FOUND}.
+         */
+        private int closingTag(final int from, final int lineEnd, final int tag)
+        {
+            final int nameLength = tags[tag].length();
+
+            for (int i = lineEnd - 1; i >= from; i--)
+            {
+                if (text.charAt(i) == '<' && text.startsWith("/", i + 1) && hasName(i + 2, tag)
+                        && isWordEnd(i + 2 + nameLength))
+                {
+                    final int gt = indexOfGt(i + 2 + nameLength);
+
+                    if (gt != NOT_FOUND)
+                    {
+                        final int end = skipSpaces(gt + 1);
+
+                        if (isBlockEnd(end))
+                        {
+                            return end;
+                        }
+                    }
+                }
+            }
+
+            return NOT_FOUND;
+        }
+
+        private boolean hasName(final int from, final int tag)
+        {
+            final String name = tags[tag];
+
+            if (from + name.length() > length)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < name.length(); i++)
+            {
+                final char c = text.charAt(from + i);
+
+                // The names are all lower case.
+                if (c != name.charAt(i) && !(c >= 'A' && c <= 'Z' && c + ('a' - 'A') == name.charAt(i)))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * The first {@code '>'} at, or after, {@code from}.
+         * <p>
+         * The last answer is kept, as the same stretch of text is often asked
+         * about again.
+         */
+        private int indexOfGt(final int from)
+        {
+            if (gtFrom <= from && (gtAt == NOT_FOUND || from <= gtAt))
+            {
+                return gtAt;
+            }
+
+            int gt;
+
+            if (from < gtFrom && gtFrom <= length)
+            {
+                gt = gtAt;
+
+                for (int i = from; i < gtFrom; i++)
+                {
+                    if (text.charAt(i) == '>')
+                    {
+                        gt = i;
+                        break;
+                    }
+                }
+            } else
+            {
+                gt = text.indexOf('>', from);
+            }
+
+            gtFrom = from;
+            gtAt = gt;
+            return gt;
+        }
+
+        /**
+         * {@code (?=\n+|\Z)}
+         */
+        private boolean isBlockEnd(final int i)
+        {
+            final boolean rtn;
+
+            if (i == length)
+            {
+                rtn = true;
+            } else if (i == length - 1)
+            {
+                rtn = isLineTerminator(text.charAt(i));
+            } else if (i == length - 2 && text.charAt(i) == '\r')
+            {
+                rtn = text.charAt(i + 1) == '\n';
+            } else
+            {
+                rtn = text.charAt(i) == '\n';
+            }
+
+            return rtn;
+        }
+
+        /**
+         * {@code \b}, after a word character.
+         */
+        private boolean isWordEnd(final int i)
+        {
+            if (i == length)
+            {
+                return true;
+            }
+
+            final int c = text.codePointAt(i);
+
+            return !(Character.isLetterOrDigit(c) || c == '_'
+                     || Character.getType(c) == Character.NON_SPACING_MARK);
+        }
+
+        private int lineEnd(final int from)
+        {
+            int i = from;
+
+            while (i < length && !isLineTerminator(text.charAt(i)))
+            {
+                i++;
+            }
+
+            return i;
+        }
+
+        /**
+         * Match a liberal block: {@code <tag ...> ... </tag ...>}, where the
+         * lines in between hold no other {@code <tag}, or {@code </tag}.
+         *
+         * @return the end of the block, or {@link #NOT_FOUND}.
+         */
+        private int matchLiberal(final int start, final int tag)
+        {
+            final int gt = indexOfGt(start + 1 + tags[tag].length());
+
+            if (gt == NOT_FOUND || gt + 1 == failedLiberal[tag])
+            {
+                return NOT_FOUND;
+            }
+
+            int from = gt + 1;
+
+            while (true)
+            {
+                final int lineEnd = lineEnd(from);
+                boolean opening = false;
+                boolean closing = false;
+
+                for (int i = from; i < lineEnd; i++)
+                {
+                    if (text.charAt(i) == '<')
+                    {
+                        if (hasName(i + 1, tag))
+                        {
+                            opening = true;
+                        } else if (text.startsWith("/", i + 1) && hasName(i + 2, tag))
+                        {
+                            closing = true;
+                        }
+                    }
+                }
+
+                if (closing)
+                {
+                    final int end = closingTag(from, lineEnd, tag);
+
+                    if (end != NOT_FOUND)
+                    {
+                        return end;
+                    }
+                }
+
+                if (opening || closing || lineEnd == length || text.charAt(lineEnd) != '\n')
+                {
+                    failedLiberal[tag] = gt + 1;
+                    return NOT_FOUND;
+                }
+
+                from = lineEnd + 1;
+            }
+        }
+
+        /**
+         * Match a nested block: {@code <tag ...>} ending its line, through to
+         * the first line that starts with {@code </tag>}.
+         *
+         * @return the end of the block, or {@link #NOT_FOUND}.
+         */
+        private int matchNested(final int start, final int tag)
+        {
+            final int gt = indexOfGt(start + 1 + tags[tag].length());
+
+            if (gt == NOT_FOUND || gt + 1 == length || text.charAt(gt + 1) != '\n')
+            {
+                return NOT_FOUND;
+            }
+
+            final int first = gt + 2;
+
+            if (failedNestedFrom[tag] <= first && first <= failedNestedAt[tag])
+            {
+                return NOT_FOUND;
+            }
+
+            int from = first;
+
+            while (true)
+            {
+                final int end = closingLine(from, tag);
+
+                if (end != NOT_FOUND)
+                {
+                    return end;
+                }
+
+                final int lineEnd = lineEnd(from);
+
+                if (lineEnd == length || text.charAt(lineEnd) != '\n')
+                {
+                    failedNestedFrom[tag] = first;
+                    failedNestedAt[tag] = from;
+                    return NOT_FOUND;
+                }
+
+                from = lineEnd + 1;
+            }
+        }
+
+        /**
+         * The start of the line after the one at {@code from}.
+         */
+        private int nextLineStart(final int from)
+        {
+            final int i = lineEnd(from);
+
+            return i < length - 1 && text.charAt(i) == '\r' && text.charAt(i + 1) == '\n'
+                    ? i + 2
+                    : i + 1;
+        }
+
+        /**
+         * Is there an opening tag here?
+         *
+         * @return the tag's index, or {@link #NOT_FOUND}.
+         */
+        private int openingTag(final int start)
+        {
+            if (text.charAt(start) == '<')
+            {
+                for (int tag = 0; tag < tags.length; tag++)
+                {
+                    if (hasName(start + 1, tag) && isWordEnd(start + 1 + tags[tag].length()))
+                    {
+                        return tag;
+                    }
+                }
+            }
+
+            return NOT_FOUND;
+        }
+
+        private int skipSpaces(final int from)
+        {
+            int i = from;
+
+            while (i < length && text.charAt(i) == ' ')
+            {
+                i++;
+            }
+
+            return i;
+        }
+    }
 }
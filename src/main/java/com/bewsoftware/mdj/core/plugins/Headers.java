@@ -37,8 +37,9 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
-import com.bewsoftware.mdj.core.Replacement;
+import com.bewsoftware.mdj.core.AppendingReplacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -64,10 +65,10 @@ public class Headers implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         setExtStyleHeaders(text);
-        return text.replaceAll(Header.PATTERN, new Header());
+        return text.replaceAll(Header.PATTERN, new Header(context));
     }
 
     private void setExtStyleHeaders(final TextEditor text)
@@ -77,7 +78,7 @@ public class Headers implements TextConvertor
         text.replaceAll("^(.*)\n[-]{4,}$", "<h2>$1</h2>");
     }
 
-    private class Header implements Replacement
+    private class Header implements AppendingReplacement
     {
         // atx-style headers - e.g., "#### heading 4 ####"
         // Added Anchor option to header text
@@ -87,12 +88,15 @@ public class Headers implements TextConvertor
                 + "[ ]*(?<heading>(?<brkt1>\\[)?[^\\]]*?(?<brkt2>(\\]|\\]\\[[^\\]]*?\\])!?)?)"
                 + "[ ]*(?:\\k<marker>[ ]*(?<tail>.*)?)?$", MULTILINE);
 
-        private Header()
+        private final ConversionContext context;
+
+        private Header(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
-        public String process(final Matcher m)
+        public void appendTo(final Matcher m, final StringBuilder sb)
         {
             final String marker = m.group("marker");
             String id = m.group("id");
@@ -105,20 +109,22 @@ public class Headers implements TextConvertor
             heading = processHeading(brkt1, brkt2, heading);
             tail = processTail(tail);
 
-            return finalizeHeadingTag(marker, id, heading, tail);
+            finalizeHeadingTag(marker, id, heading, tail, sb);
         }
 
-        private String finalizeHeadingTag(
+        private void finalizeHeadingTag(
                 final String marker,
                 final String id,
                 final String heading,
-                final String tail
+                final String tail,
+                final StringBuilder sb
         )
         {
             final int level = marker.length();
-            final String tag = "h" + level;
 
-            return "<" + tag + id + ">" + heading + tail + "</" + tag + ">\n";
+            sb.append("<h").append(level).append(id).append('>')
+                    .append(heading).append(tail)
+                    .append("</h").append(level).append(">\n");
         }
 
         private String processHeading(
@@ -132,7 +138,7 @@ public class Headers implements TextConvertor
             // Process header text, looking for anchor option (BW)
             if (brkt1 != null && brkt2 != null)
             {
-                rtn = doAnchors(new TextEditor(heading)).toString();
+                rtn = doAnchors(context, new TextEditor(heading)).toString();
             }
             return rtn;
         }
@@ -158,7 +164,7 @@ public class Headers implements TextConvertor
 
             if (notBlank(tail))
             {
-                rtn = " " + doAnchors(new TextEditor(tail)).toString();
+                rtn = " " + doAnchors(context, new TextEditor(tail)).toString();
             } else
             {
                 rtn = "";
@@ -39,12 +39,12 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import com.bewsoftware.mdj.core.utils.LinkDefinition;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.bewsoftware.mdj.core.plugins.TextConvertor.protectEmphasis;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.linkDefinitions;
 import static com.bewsoftware.utils.string.Strings.notEmpty;
 import static java.util.regex.Pattern.compile;
 
@@ -76,10 +76,10 @@ public class Images implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         processInlineImages(text);
-        text.replaceAll(Image.PATTERN, new Image());
+        text.replaceAll(Image.PATTERN, new Image(context));
 
         return text;
     }
@@ -109,8 +109,11 @@ public class Images implements TextConvertor
                 // ID = $3
                 + ")");
 
-        private Image()
+        private final ConversionContext context;
+
+        private Image(final ConversionContext context)
         {
+            this.context = context;
         }
 
         @Override
@@ -124,7 +127,7 @@ public class Images implements TextConvertor
             id = processId(id, altText);
 
             // imageDefinition is the same as linkDefinition
-            final LinkDefinition defn = linkDefinitions.get(id);
+            final LinkDefinition defn = context.getLinkDefinitions().get(id);
 
             if (defn != null)
             {
@@ -165,7 +168,7 @@ public class Images implements TextConvertor
 
             if (notEmpty(title))
             {
-                title = protectEmphasis(title);
+                title = protectEmphasis(context, title);
                 titleTag.append(" title=\"").append(title).append("\"");
             }
 
@@ -178,7 +181,7 @@ public class Images implements TextConvertor
 
             if (url != null)
             {
-                url = protectEmphasis(url);
+                url = protectEmphasis(context, url);
             }
 
             return url;
@@ -37,25 +37,21 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
-import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import com.bewsoftware.utils.Ref;
+import java.util.BitSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.bewsoftware.mdj.core.plugins.PluginInterlink.doLists;
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.runBlockGamut;
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.runSpanGamut;
 import static com.bewsoftware.mdj.core.plugins.TextConvertor.hasParagraphBreak;
-import static com.bewsoftware.mdj.core.plugins.TextConvertor.isEmptyString;
-import static com.bewsoftware.mdj.core.plugins.TextConvertor.replaceAll;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addClass;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addId;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CLASS_REGEX_OPT;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.ID_REGEX_OPT;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.TAB_WIDTH;
 import static com.bewsoftware.utils.string.Strings.notBlank;
-import static java.util.regex.Pattern.MULTILINE;
 import static java.util.regex.Pattern.compile;
 
 /**
@@ -74,6 +70,11 @@ import static java.util.regex.Pattern.compile;
  * Both the `[#&lt;id&gt;]` and `[@&lt;classname&gt;]` attributes are
  * optional,
  * but if both are supplied they <i>must</i> be in the order shown above.
+ * <p>
+ * The lists, and the items within each list, are found by walking the
+ * text a line at a time. The sub-lists of
+ * an item are found in the item's own text, so each line is only looked at
+ * once for each list it is nested within.
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
@@ -82,33 +83,233 @@ import static java.util.regex.Pattern.compile;
  */
 public class Lists implements TextConvertor
 {
+    private static final Pattern CHECK_BOX = compile("^\\[(?<checked>[ xX])\\](?<disabled>[!])?"
+            + CLASS_REGEX_OPT + "[ ]+(?<text>[^ ]+.*)\\n");
+
+    private static final Pattern CLASS_ATTRIBUTE = compile("^" + CLASS_REGEX_OPT
+            + "[ ]+(?<text>[^ ]+.*)\\n");
+
     private static final int LESS_THAN_TAB = TAB_WIDTH - 1;
 
-    private static final String LIST_TYPE = "[*+-]";
-
-    private static final String WHOLE_LIST
-            = "(?<list>(?:[ ]{0," + LESS_THAN_TAB + "}"
-            + "(?<listType>" + LIST_TYPE + "|\\d+[.])"
-            // $1 is first list item marker
-            + "[ ]+"
-            + ")"
-            + "(?s:.+?)"
-            + "(?:"
-            + "\\z"
-            // End of input is OK
-            + "|\\n{2,}"
-            // If not end of input, then a new para
-            + "(?=\\S)"
-            // negative lookahead for another list marker
-            + "(?![ ]*(?:" + LIST_TYPE + "|\\d+[.])[ ]+)"
-            + "))";
-
-    private static final Ref<Integer> listLevel = Ref.val(0);
+    private static final int NOT_FOUND = -1;
 
     public Lists()
     {
     }
 
+    /**
+     * Append a list item.
+     * <p>
+     * An item that is separated from its neighbours by a blank line, or that
+     * holds a blank line itself, is run through the block gamut. Otherwise,
+     * it is checked for the extended list options, and its sub-lists are
+     * processed along with its own text.
+     *
+     * @param context     the current conversion.
+     * @param body        the text of the item, following its list marker.
+     * @param leadingLine {@code true} if the item follows a blank line.
+     * @param sb          to append the item to.
+     *
+     * @return {@code true} if the item holds a check box, {@code false}
+     *         otherwise.
+     */
+    private static boolean appendItem(
+            final ConversionContext context,
+            final String body,
+            final boolean leadingLine,
+            final StringBuilder sb
+    )
+    {
+        final Ref<String> classRtn = Ref.val();
+        final TextEditor item = new TextEditor(body);
+        final boolean checkBox;
+        final String html;
+
+        if (leadingLine || hasParagraphBreak(item))
+        {
+            checkBox = false;
+            html = runBlockGamut(context, item.outdent()).trim().toString();
+        } else
+        {
+            checkBox = doExtendedListOptions(item, classRtn);
+            html = null;
+        }
+
+        sb.append("<li");
+
+        if (classRtn.val != null && !classRtn.val.isBlank())
+        {
+            sb.append(addClass(classRtn.val));
+        }
+
+        sb.append('>');
+
+        if (html != null)
+        {
+            sb.append(html);
+        } else
+        {
+            final int start = sb.length();
+            appendItemText(context, outdent(item.toString()), sb);
+            trim(sb, start);
+        }
+
+        sb.append("</li>\n");
+
+        return checkBox;
+    }
+
+    /**
+     * Append the items of a list.
+     *
+     * @param context the current conversion.
+     * @param list    the text of the list.
+     * @param sb      to append the items to.
+     *
+     * @return {@code true} if any check boxes found, {@code false} otherwise.
+     */
+    private static boolean appendItems(
+            final ConversionContext context,
+            final String list,
+            final StringBuilder sb
+    )
+    {
+        final ListScanner scanner = new ListScanner(list);
+        boolean checkBoxes = false;
+        int lastEnd = 0;
+
+        while (scanner.findItem(lastEnd))
+        {
+            sb.append(list, lastEnd, scanner.start);
+            checkBoxes |= appendItem(context, list.substring(scanner.bodyStart, scanner.end),
+                    scanner.leadingLine, sb);
+            lastEnd = scanner.end;
+        }
+
+        sb.append(list, lastEnd, list.length());
+
+        return checkBoxes;
+    }
+
+    /**
+     * Append the text of a list item, with its sub-lists converted, and the
+     * span gamut run over the rest.
+     *
+     * @param context the current conversion.
+     * @param text    the outdented text of the item.
+     * @param sb      to append the result to.
+     */
+    private static void appendItemText(
+            final ConversionContext context,
+            final String text,
+            final StringBuilder sb
+    )
+    {
+        final ListScanner scanner = new ListScanner(text);
+        int lastEnd = 0;
+
+        while (scanner.findList(lastEnd, false))
+        {
+            appendSpans(context, text.substring(lastEnd, scanner.start), sb);
+            appendList(context, scanner, false, sb);
+            lastEnd = scanner.end;
+        }
+
+        appendSpans(context, lastEnd == 0 ? text : text.substring(lastEnd), sb);
+    }
+
+    /**
+     * Append the list last found by the scanner.
+     *
+     * @param context the current conversion.
+     * @param scanner holding the list found.
+     * @param starter {@code true} if this is a top level list.
+     * @param sb      to append the list to.
+     */
+    private static void appendList(
+            final ConversionContext context,
+            final ListScanner scanner,
+            final boolean starter,
+            final StringBuilder sb
+    )
+    {
+        final String list = normalizeBlankLines(scanner.text, scanner.listStart, scanner.end);
+        final String listType = isBullet(scanner.marker) ? "ul" : "ol";
+        final String id = starter ? scanner.id : "";
+        final String classes = scanner.classes;
+        final StringBuilder items = new StringBuilder(list.length() + (list.length() >> 1));
+        final boolean checkBoxes;
+
+        // The listLevel variable keeps track of when we're inside a list.
+        // Each time we enter a list, we increment it; when we leave a list,
+        // we decrement. If it's zero, we're not in a list anymore.
+        //
+        // We do this because when we're not inside a list, we want to treat
+        // something like this:
+        //
+        //       I recommend upgrading to version
+        //       8. Oops, now this line is treated
+        //       as a sub-list.
+        //
+        // As a single paragraph, despite the fact that the second line starts
+        // with a digit-period-space sequence.
+        //
+        // Whereas when we're inside a list (or sub-list), that line will be
+        // treated as the start of a sub-list. What a kludge, huh? This is
+        // an aspect of Markdown's syntax that's hard to parse perfectly
+        // without resorting to mind-reading. Perhaps the solution is to
+        // change the syntax rules such that sub-lists must start with a
+        // starting cardinal number; e.g. "1." or "a.".
+        context.incrementListLevel();
+
+        try
+        {
+            // Check boxes are processed in here...
+            checkBoxes = appendItems(context, list, items);
+        } finally
+        {
+            context.decrementListLevel();
+        }
+
+        final String classAttrib = processClasses(classes, checkBoxes ? "checkbox" : "");
+
+        if (!starter)
+        {
+            // Trim any trailing whitespace, to put the closing `</ol>` or `</ul>`
+            // up on the preceding line, to get it past the current stupid
+            // HTML block parser. This is a hack to work around the terrible
+            // hack that is the HTML block parser.
+            int end = items.length();
+
+            while (end > 0 && Character.isWhitespace(items.charAt(end - 1)))
+            {
+                end--;
+            }
+
+            items.setLength(end);
+        }
+
+        //
+        // Added 'class=' attribute for when list contains checkboxes.
+        //
+        // Bradley Willcott (13/12/2020)
+        //
+        sb.append('<').append(listType).append(addId(id)).append(addClass(classAttrib)).append(">\n")
+                .append(items).append("</").append(listType).append(">\n");
+    }
+
+    private static void appendSpans(
+            final ConversionContext context,
+            final String text,
+            final StringBuilder sb
+    )
+    {
+        if (!text.isEmpty())
+        {
+            sb.append(runSpanGamut(context, new TextEditor(text)).toString());
+        }
+    }
+
     /**
      * Process additional types of lists.
      * <p>
@@ -118,13 +319,13 @@ public class Lists implements TextConvertor
      * - [ ] This is a checkbox item.<br>
      * - [ ][@classname] This is a checkbox item with a class attribute.<br>
      * see: {@link #processCheckBoxes(com.bewsoftware.mdj.core.TextEditor,
-     * com.bewsoftware.utils.struct.StringReturn)
+     * com.bewsoftware.utils.Ref)
      * processCheckBoxes()}
      * </li>
      * <li>Class attribute.<br>
      * - [@classname] This is a list item with a class attribute.<br>
      * see: {@link #processListItemsWithAClass(com.bewsoftware.mdj.core.TextEditor,
-     * com.bewsoftware.utils.struct.StringReturn)
+     * com.bewsoftware.utils.Ref)
      * processListItemsWithAClass()}
      * </li>
      * </ul>
@@ -151,6 +352,104 @@ public class Lists implements TextConvertor
         return rtn;
     }
 
+    private static boolean isBullet(final char marker)
+    {
+        return marker == '*' || marker == '+' || marker == '-';
+    }
+
+    private static boolean isLineTerminator(final char c)
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Copy the text of a list, turning each run of blank lines into two
+     * blank lines, so that we can make a paragraph for the last item in a
+     * list, if necessary, and dropping those at the end.
+     *
+     * @param text holding the list.
+     * @param from the start of the list.
+     * @param to   the end of the list.
+     *
+     * @return the list text.
+     */
+    private static String normalizeBlankLines(final String text, final int from, final int to)
+    {
+        final StringBuilder sb = new StringBuilder(to - from + 2);
+        int i = from;
+
+        while (i < to)
+        {
+            final int nl = text.indexOf('\n', i);
+
+            if (nl == NOT_FOUND || nl >= to)
+            {
+                sb.append(text, i, to);
+                break;
+            }
+
+            sb.append(text, i, nl);
+            i = nl;
+
+            while (i < to && text.charAt(i) == '\n')
+            {
+                i++;
+            }
+
+            sb.append(i - nl == 1 || i == to ? "\n" : "\n\n\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Remove one tab width from the start of each line.
+     *
+     * @param text to be processed.
+     *
+     * @return the outdented text.
+     */
+    private static String outdent(final String text)
+    {
+        final int length = text.length();
+        final StringBuilder sb = new StringBuilder(length);
+        int i = 0;
+
+        while (i < length)
+        {
+            if (text.charAt(i) == '\t')
+            {
+                i++;
+            } else
+            {
+                final int limit = Math.min(i + TAB_WIDTH, length);
+
+                while (i < limit && text.charAt(i) == ' ')
+                {
+                    i++;
+                }
+            }
+
+            int next = i;
+
+            while (next < length && !isLineTerminator(text.charAt(next)))
+            {
+                next++;
+            }
+
+            if (next < length)
+            {
+                next += text.charAt(next) == '\r' && next + 1 < length
+                        && text.charAt(next + 1) == '\n' ? 2 : 1;
+            }
+
+            sb.append(text, i, next);
+            i = next;
+        }
+
+        return sb.toString();
+    }
+
     /**
      * Process list items with checkboxes.
      * <p>
@@ -199,16 +498,18 @@ public class Lists implements TextConvertor
      */
     private static boolean processCheckBoxes(final TextEditor item, final Ref<String> classString)
     {
-        final String regex = "^\\[(?<checked>[ xX])\\](?<disabled>[!])?" + CLASS_REGEX_OPT + "[ ]+(?<text>[^ ]+.*)\\n";
-        final Pattern p = compile(regex);
+        final String text = item.toString();
+        final Matcher m = CHECK_BOX.matcher(text);
+        final boolean rtn = m.lookingAt();
 
-        Replacement processCheckBox = (Matcher m) ->
+        if (rtn)
         {
-            final StringBuilder sb = new StringBuilder("<input type=\"checkbox\"");
             final String checked = m.group("checked");
             final String disabled = m.group("disabled");
             classString.val = m.group("classes");
-            final String text = m.group("text");
+
+            final StringBuilder sb = new StringBuilder(text.length() + 32);
+            sb.append("<input type=\"checkbox\"");
 
             if (!checked.isBlank())
             {
@@ -220,60 +521,21 @@ public class Lists implements TextConvertor
                 sb.append(" disabled");
             }
 
-            sb.append(">").append(text).append("\n");
-
-            return sb.toString();
-        };
+            // The rest of the text follows on unchanged.
+            sb.append(">").append(text, m.start("text"), text.length());
+            item.setText(sb);
+        }
 
-        item.replaceAll(p, processCheckBox);
-        return item.wasFound();
+        return rtn;
     }
 
-    /**
-     * Process list items.
-     * <p>
-     * <b>Changes:</b>
-     * <ul>
-     * <li>Includes 'Check Boxes' and items with a 'class' attribute.</li>
-     * </ul>
-     * Bradley Willcott (20/04/2020)
-     *
-     * @param list Text to be processed and then returns the modified text.
-     *
-     * @return {@code true} if any check boxes found, {@code false} otherwise.
-     */
-    private static boolean processListItems(final Ref<String> list)
+    private static String processClasses(final String classes, final String classAttrib)
     {
-        // The listLevel variable keeps track of when we're inside a list.
-        // Each time we enter a list, we increment it; when we leave a list,
-        // we decrement. If it's zero, we're not in a list anymore.
-        //
-        // We do this because when we're not inside a list, we want to treat
-        // something like this:
-        //
-        //       I recommend upgrading to version
-        //       8. Oops, now this line is treated
-        //       as a sub-list.
-        //
-        // As a single paragraph, despite the fact that the second line starts
-        // with a digit-period-space sequence.
-        //
-        // Whereas when we're inside a list (or sub-list), that line will be
-        // treated as the start of a sub-list. What a kludge, huh? This is
-        // an aspect of Markdown's syntax that's hard to parse perfectly
-        // without resorting to mind-reading. Perhaps the solution is to
-        // change the syntax rules such that sub-lists must start with a
-        // starting cardinal number; e.g. "1." or "a.".
-        listLevel.val++;
-
-        // Trim trailing blank lines:
-        list.val = replaceAll(list.val, "\\n{2,}\\z", "\n");
-        final ListItem listItem = new ListItem();
-        list.val = replaceAll(list.val, ListItem.PATTERN, listItem);
-
-        listLevel.val--;
-
-        return listItem.checkBoxesFound;
+        return classes == null
+                ? classAttrib
+                : notBlank(classAttrib)
+                ? classAttrib + " " + classes
+                : classes;
     }
 
     /**
@@ -299,187 +561,504 @@ public class Lists implements TextConvertor
      */
     private static void processListItemsWithAClass(final TextEditor item, final Ref<String> classString)
     {
-        final String regex = "^" + CLASS_REGEX_OPT + "[ ]+(?<text>[^ ]+.*)\\n";
-        final Pattern p = compile(regex);
+        final String text = item.toString();
+        final Matcher m = CLASS_ATTRIBUTE.matcher(text);
 
-        Replacement processClass = (Matcher m) ->
+        if (m.lookingAt())
         {
-            final StringBuilder sb = new StringBuilder();
             classString.val = m.group("classes");
-            final String text = m.group("text");
+            item.setText(text.substring(m.start("text")));
+        }
+    }
+
+    /**
+     * Trim the control characters and spaces from both ends of the text
+     * appended to the builder from {@code start} on.
+     *
+     * @param sb    holding the text.
+     * @param start of the text to trim.
+     */
+    private static void trim(final StringBuilder sb, final int start)
+    {
+        int end = sb.length();
 
-            sb.append(text).append("\n");
+        while (end > start && sb.charAt(end - 1) <= ' ')
+        {
+            end--;
+        }
+
+        sb.setLength(end);
+        int i = start;
 
-            return sb.toString();
-        };
+        while (i < end && sb.charAt(i) <= ' ')
+        {
+            i++;
+        }
 
-        item.replaceAll(p, processClass);
+        sb.delete(start, i);
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
+        final String s = text.toString();
+        final ListScanner scanner = new ListScanner(s);
+        final boolean starter = context.getListLevel() == 0;
 
-        if (listLevel.val == 0)
-        {
-            text.replaceAll(ListStarter.PATTERN, new ListStarter());
-        } else
+        if (scanner.findList(0, starter))
         {
-            text.replaceAll(List.PATTERN, new List());
+            final StringBuilder sb = new StringBuilder(s.length() + (s.length() >> 1));
+            int lastEnd = 0;
+
+            do
+            {
+                sb.append(s, lastEnd, scanner.start);
+                appendList(context, scanner, starter, sb);
+                lastEnd = scanner.end;
+            } while (scanner.findList(lastEnd, starter));
+
+            sb.append(s, lastEnd, s.length());
+            text.setText(sb);
         }
 
         return text;
     }
 
-    private String getListType(final Matcher m)
+    /**
+     * Finds the lists in a text, and the items in a list.
+     * <p>
+     * A list starts on a line with a list marker, indented by no more than
+     * three spaces. At the top level, it must also start the text, or follow
+     * a blank line. It may be preceded by a line holding its attributes. It
+     * runs until the end of the text, or until a blank line that is followed
+     * by an unindented line that does not start another list.
+     * <p>
+     * An item runs up to the next line with a list marker at the very same
+     * indentation, or to the end of the list. Everything between, however it
+     * is indented, belongs to the item, which is where its sub-lists are
+     * found in turn.
+     * <p>
+     * Lines are broken as {@link Pattern#MULTILINE} breaks them.
+     */
+    private static class ListScanner
     {
-        return m.group("listType").matches(LIST_TYPE) ? "ul" : "ol";
-    }
+        private int bodyStart;
 
-    private String processCheckBoxes(final boolean checkboxes, final String classAttrib)
-    {
-        return checkboxes ? "checkbox" : classAttrib;
-    }
+        private int bracketAt = NOT_FOUND;
 
-    private String processClasses(final String classes, final String classAttrib)
-    {
-        return classes == null
-                ? classAttrib
-                : notBlank(classAttrib)
-                ? classAttrib + " " + classes
-                : classes;
-    }
+        private int bracketFrom = Integer.MAX_VALUE;
 
-    private String processFinalString(
-            final String listType,
-            final String id,
-            final String classAttrib,
-            final Ref<String> list
-    )
-    {
-        //
-        // Added 'class=' attribute for when list contains checkboxes.
-        //
-        // Bradley Willcott (13/12/2020)
-        //
-        return "<" + listType + addId(id) + addClass(classAttrib) + ">\n" + list + "</" + listType + ">\n";
-    }
+        private String classes;
 
-    private void turnDoubleReturnsIntoTripleReturns(final Ref<String> list)
-    {
-        // Turn double returns into triple returns, so that we can make a
-        // paragraph for the last item in a list, if necessary:
-        list.val = replaceAll(list.val, "\\n{2,}", "\n\n\n");
-    }
+        private int end;
 
-    private static class ListItem implements Replacement
-    {
-        public static final Pattern PATTERN = compile("(\\n)?"
-                + "^([ ]*)([-+*]|\\d+[.])[ ]+"
-                + "((?s:.+?)(\\n{1,2}))"
-                + "(?=\\n*(\\z|\\2([-+*]|\\d+[.])[ ]+))",
-                MULTILINE);
+        /**
+         * The indentations for which no item can end, and so will not
+         * match from further on either.
+         */
+        private final BitSet failedIndents = new BitSet();
+
+        private String id;
+
+        private boolean leadingLine;
+
+        private final int length;
+
+        private int listStart;
+
+        private char marker;
+
+        private int start;
 
-        public boolean checkBoxesFound = false;
+        private final String text;
 
-        private ListItem()
+        private ListScanner(final String text)
         {
+            this.text = text;
+            this.length = text.length();
         }
 
-        @Override
-        public String process(final Matcher m)
+        private static boolean isAlpha(final char c)
         {
-            final Ref<String> classRtn = Ref.val();
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        private static boolean isDigit(final char c)
+        {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isSpace(final char c)
+        {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+
+        private static boolean isWordChar(final char c)
+        {
+            return isAlpha(c) || isDigit(c) || c == '_';
+        }
 
-            final String leadingLine = m.group(1);
-            TextEditor item = new TextEditor(m.group(4));
+        /**
+         * Find the next item, at or after {@code from}.
+         *
+         * @param from where to start looking.
+         *
+         * @return {@code true} if found, {@code false} otherwise.
+         */
+        public boolean findItem(final int from)
+        {
+            boolean rtn = false;
 
-            if (!isEmptyString(leadingLine) || hasParagraphBreak(item))
+            for (int s = from; s < length && !rtn; s++)
             {
-                item = runBlockGamut(item.outdent());
-            } else
+                if (text.charAt(s) == '\n')
+                {
+                    rtn = s + 1 < length && matchItem(s + 1);
+                    leadingLine = true;
+                } else
+                {
+                    // Having followed a '\n', it has been tried already.
+                    rtn = (s == from || text.charAt(s - 1) != '\n') && isLineStart(s) && matchItem(s);
+                    leadingLine = false;
+                }
+
+                start = s;
+            }
+
+            return rtn;
+        }
+
+        /**
+         * Find the next list, at or after {@code from}.
+         *
+         * @param from    where to start looking.
+         * @param starter {@code true} if looking for a top level list.
+         *
+         * @return {@code true} if found, {@code false} otherwise.
+         */
+        public boolean findList(final int from, final boolean starter)
+        {
+            boolean rtn = false;
+
+            for (int s = from; s < length && !rtn; s++)
             {
-                checkBoxesFound |= doExtendedListOptions(item, classRtn);
-                // Recurse sub-lists
-                item = doLists(item.outdent());
-                item = runSpanGamut(item);
+                if (!starter)
+                {
+                    rtn = isLineStart(s) && matchList(s, false);
+                } else if (s == 0)
+                {
+                    // A leading blank line goes with the list.
+                    rtn = matchList(text.charAt(0) == '\n' ? 1 : 0, true);
+                } else
+                {
+                    rtn = text.charAt(s - 1) == '\n' && isLineStart(s - 1) && matchList(s, true);
+                }
+
+                start = s;
             }
 
-            return processFinalString(classRtn, item);
+            return rtn;
         }
 
-        private String processFinalString(final Ref<String> classRtn, final TextEditor item)
+        /**
+         * Match an optional attribute line: {@code [#id][@classes]}, with the
+         * id only at the top level, and either or both of them missing.
+         *
+         * @param i       the start of the line.
+         * @param starter {@code true} if at the top level.
+         *
+         * @return the start of the next line, or {@code NOT_FOUND}.
+         */
+        private int attributeLineEnd(final int i, final boolean starter)
         {
-            return "<li"
-                    + (classRtn.val != null && !classRtn.val.isBlank()
-                    ? addClass(classRtn.val) : "")
-                    + ">" + item.trim().toString() + "</li>\n";
+            int j = i;
+
+            if (starter && text.startsWith("[#", j))
+            {
+                final int k = skipWordChars(j + 2);
+
+                if (k > j + 2 && k < length && text.charAt(k) == ']')
+                {
+                    id = text.substring(j + 2, k);
+                    j = k + 1;
+                }
+            }
+
+            if (text.startsWith("[@", j) && j + 2 < length && isAlpha(text.charAt(j + 2)))
+            {
+                final int k = closingBracket(j + 3);
+
+                if (k != NOT_FOUND)
+                {
+                    classes = text.substring(j + 2, k);
+                    j = k + 1;
+                }
+            }
+
+            j = skipSpaces(j);
+
+            return j < length && text.charAt(j) == '\n' ? j + 1 : NOT_FOUND;
         }
-    }
 
-    private class List implements Replacement
-    {
-        public static final Pattern PATTERN = compile(
-                "^(?:" + CLASS_REGEX_OPT + "[ ]*\\n)?" + WHOLE_LIST, MULTILINE);
+        /**
+         * The position of the next ']', which may be on a following line.
+         */
+        private int closingBracket(final int from)
+        {
+            if (from < bracketFrom || (bracketAt != NOT_FOUND && from > bracketAt))
+            {
+                bracketAt = text.indexOf(']', from);
+                bracketFrom = from;
+            }
 
-        private List()
+            return bracketAt;
+        }
+
+        /**
+         * Do the newlines at {@code e} end an item, indented by
+         * {@code indent}? That is, are they followed by the end of the text,
+         * or by a sibling item? If so, {@link #end} is set to the end of the
+         * first one, or two, of them.
+         */
+        private boolean endsItem(final int e, final int indent)
         {
+            final int f = skipNewlines(e);
+            final boolean rtn = f == length || (skipSpaces(f) - f == indent && isListMarker(f + indent));
+
+            if (rtn)
+            {
+                end = e + Math.min(f - e, 2);
+            }
+
+            return rtn;
         }
 
-        @Override
-        public String process(final Matcher m)
+        private boolean isLineStart(final int i)
         {
-            final Ref<String> list = Ref.val(m.group("list"));
-            final String classes = m.group("classes");
-            final String listType = getListType(m);
+            boolean rtn = i < length;
 
-            turnDoubleReturnsIntoTripleReturns(list);
+            if (rtn && i > 0)
+            {
+                final char c = text.charAt(i - 1);
+                rtn = isLineTerminator(c) && !(c == '\r' && text.charAt(i) == '\n');
+            }
 
-            // Check boxes are processed in here...
-            final boolean checkboxes = processListItems(list);
-            String classAttrib = "";
+            return rtn;
+        }
 
-            classAttrib = processCheckBoxes(checkboxes, classAttrib);
-            classAttrib = processClasses(classes, classAttrib);
+        /**
+         * Is there a list marker at {@code i}, followed by a space?
+         */
+        private boolean isListMarker(final int i)
+        {
+            final int j = markerEnd(i);
 
-            // Trim any trailing whitespace, to put the closing `</ol>` or `</ul>`
-            // up on the preceding line, to get it past the current stupid
-            // HTML block parser. This is a hack to work around the terrible
-            // hack that is the HTML block parser.
-            list.val = list.val.stripTrailing();
+            return j != NOT_FOUND && j < length && text.charAt(j) == ' ';
+        }
+
+        /**
+         * The end of the list, with its body starting at {@code bodyStart}.
+         * That is, the end of the text, or the end of the first run of two or
+         * more newlines that is followed by an unindented line that is not a
+         * list item.
+         */
+        private int listEnd(final int bodyStart)
+        {
+            int e = text.indexOf('\n', bodyStart + 1);
 
-            return processFinalString(listType, "", classAttrib, list);
+            while (e != NOT_FOUND)
+            {
+                final int f = skipNewlines(e);
+
+                if (f - e > 1 && f < length && !isSpace(text.charAt(f)) && !isListMarker(f))
+                {
+                    return f;
+                }
+
+                e = text.indexOf('\n', f);
+            }
+
+            return length;
         }
-    }
 
-    private class ListStarter implements Replacement
-    {
-        public static final Pattern PATTERN = compile(
-                "(?:(?<=^\\n)|\\A\\n?)(?:" + ID_REGEX_OPT + CLASS_REGEX_OPT
-                + "[ ]*\\n)?" + WHOLE_LIST, MULTILINE);
+        /**
+         * The end of the list marker at {@code i}: one of '*', '+', '-', or a
+         * number followed by a '.'.
+         */
+        private int markerEnd(final int i)
+        {
+            int rtn = NOT_FOUND;
+
+            if (i < length)
+            {
+                final char c = text.charAt(i);
+
+                if (isBullet(c))
+                {
+                    rtn = i + 1;
+                } else
+                {
+                    int j = i;
+
+                    while (j < length && isDigit(text.charAt(j)))
+                    {
+                        j++;
+                    }
+
+                    if (j > i && j < length && text.charAt(j) == '.')
+                    {
+                        rtn = j + 1;
+                    }
+                }
+            }
+
+            return rtn;
+        }
+
+        /**
+         * Match an item starting at the line {@code t}. The item runs up to
+         * the end of one, or two, newlines that are followed by the end of
+         * the text, or by a sibling item.
+         */
+        private boolean matchItem(final int t)
+        {
+            final int i = skipSpaces(t);
+            final int indent = i - t;
+            final int markerEnd = markerEnd(i);
+
+            if (markerEnd == NOT_FOUND)
+            {
+                return false;
+            }
+
+            final int q = skipSpaces(markerEnd);
+
+            if (q == markerEnd)
+            {
+                return false;
+            }
+
+            if (!failedIndents.get(indent))
+            {
+                int e = text.indexOf('\n', q + 1);
+
+                while (e != NOT_FOUND)
+                {
+                    if (endsItem(e, indent))
+                    {
+                        bodyStart = q;
+                        return true;
+                    }
+
+                    e = text.indexOf('\n', skipNewlines(e));
+                }
 
-        private ListStarter()
+                failedIndents.set(indent);
+            }
+
+            // Failing that, the last of the spaces after the marker is the
+            // body, so that an item with nothing else ends on its own line.
+            if (q - markerEnd > 1 && q < length && text.charAt(q) == '\n' && endsItem(q, indent))
+            {
+                bodyStart = q - 1;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Match a list, with its optional attribute line, starting at the
+         * line {@code i}.
+         */
+        private boolean matchList(final int i, final boolean starter)
         {
+            id = null;
+            classes = null;
+
+            final int j = attributeLineEnd(i, starter);
+
+            if (j != NOT_FOUND && matchListBody(j))
+            {
+                return true;
+            }
+
+            id = null;
+            classes = null;
+
+            return matchListBody(i);
         }
 
-        @Override
-        public String process(final Matcher m)
+        private boolean matchListBody(final int i)
         {
-            final Ref<String> list = Ref.val(m.group("list"));
-            final String id = m.group("id");
-            final String classes = m.group("classes");
-            final String listType = getListType(m);
+            int j = i;
+
+            while (j < length && j - i < LESS_THAN_TAB && text.charAt(j) == ' ')
+            {
+                j++;
+            }
 
-            turnDoubleReturnsIntoTripleReturns(list);
+            final int markerEnd = markerEnd(j);
 
-            // Check boxes are processed in here...
-            final boolean checkboxes = processListItems(list);
-            String classAttrib = "";
+            if (markerEnd == NOT_FOUND)
+            {
+                return false;
+            }
+
+            int q = skipSpaces(markerEnd);
+
+            if (q == markerEnd || (q == length && q - markerEnd == 1))
+            {
+                return false;
+            }
 
-            classAttrib = processCheckBoxes(checkboxes, classAttrib);
-            classAttrib = processClasses(classes, classAttrib);
+            if (q == length)
+            {
+                // The last space is the list body.
+                q--;
+            }
+
+            listStart = i;
+            marker = text.charAt(j);
+            end = listEnd(q);
+
+            return true;
+        }
+
+        private int skipNewlines(final int i)
+        {
+            int j = i;
+
+            while (j < length && text.charAt(j) == '\n')
+            {
+                j++;
+            }
+
+            return j;
+        }
+
+        private int skipSpaces(final int i)
+        {
+            int j = i;
+
+            while (j < length && text.charAt(j) == ' ')
+            {
+                j++;
+            }
+
+            return j;
+        }
+
+        private int skipWordChars(final int i)
+        {
+            int j = i;
+
+            while (j < length && isWordChar(text.charAt(j)))
+            {
+                j++;
+            }
 
-            return processFinalString(listType, id, classAttrib, list);
+            return j;
         }
     }
 }
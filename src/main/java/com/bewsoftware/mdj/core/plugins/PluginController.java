@@ -37,7 +37,10 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
+import com.bewsoftware.mdj.core.PipelineListener;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.plugins.utils.SpanScanner;
 import com.bewsoftware.utils.Ref;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
@@ -48,6 +51,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.bewsoftware.mdj.core.plugins.utils.SpanScanner.*;
+
 /**
  * This class instantiates all the plugins and stores them for later use.
  *
@@ -85,6 +90,25 @@ public class PluginController
 
     private static final String PLUGIN_PACKAGE = "com.bewsoftware.mdj.core.plugins.";
 
+    /**
+     * The {@link SpanScanner} features each of the {@link #SPAN_GAMIT_PLUGINS}
+     * acts upon.
+     */
+    private static final int[] SPAN_GAMIT_FEATURES =
+    {
+        TAG,
+        CODE,
+        ESCAPE,
+        SUB_SUP,
+        DEL_INS,
+        IMAGE,
+        LINK,
+        AUTO_LINK,
+        TAG,
+        AMPS_AND_ANGLES,
+        EMPHASIS
+    };
+
     private static final String[] SPAN_GAMIT_PLUGINS =
     {
         "EscapeSpecialCharsWithinTagAttributes",
@@ -108,15 +132,13 @@ public class PluginController
 
     private final ConcurrentHashMap<String, TextConvertor> plugins;
 
-    private final List<String> spanGamitList = Arrays.asList(SPAN_GAMIT_PLUGINS);
-
     public PluginController()
     {
         this.plugins = new ConcurrentHashMap<>();
         final SortedSet<String> classNames = new TreeSet<>();
 
         classNames.addAll(blockGamitList);
-        classNames.addAll(spanGamitList);
+        classNames.addAll(Arrays.asList(SPAN_GAMIT_PLUGINS));
         classNames.addAll(Arrays.asList(MISC_PLUGINS));
 
         classNames.stream().forEachOrdered((className) ->
@@ -139,42 +161,118 @@ public class PluginController
     /**
      * Run all block level processing.
      *
+     * @param context the current conversion.
      * @param text
      *
      * @return
      */
-    public TextEditor runBlockGamut(final TextEditor text)
+    public TextEditor runBlockGamut(final ConversionContext context, final TextEditor text)
     {
-        return runGamit(blockGamitList, text);
+        context.incrementBlockLevel();
+
+        try
+        {
+            return runGamit(blockGamitList, context, text);
+        } finally
+        {
+            context.decrementBlockLevel();
+        }
     }
 
-    public TextEditor runPlugin(final String className, final TextEditor text)
+    public TextEditor runPlugin(
+            final String className,
+            final ConversionContext context,
+            final TextEditor text
+    )
     {
         final TextConvertor tc = plugins.get(className);
 
-        return tc != null ? tc.execute(text) : text;
+        if (tc == null)
+        {
+            return text;
+        }
+
+        final PipelineListener listener = context.getPipelineListener();
+
+        return listener == null
+                ? tc.execute(context, text)
+                : runPlugin(tc, className, listener, context, text);
     }
 
     /**
      * Run &lt;span&gt; level processing.
      *
+     * @param context the current conversion.
      * @param text
      *
      * @return
      */
-    public TextEditor runSpanGamut(final TextEditor text)
+    public TextEditor runSpanGamut(final ConversionContext context, final TextEditor text)
     {
-        final TextEditor gText = runGamit(spanGamitList, text);
+        int features = SpanScanner.scan(text);
+        TextEditor gText = text;
 
-        return gText.replaceAll(" {2,}\n", " <br>\n");
+        for (int i = 0; i < SPAN_GAMIT_PLUGINS.length; i++)
+        {
+            if ((features & SPAN_GAMIT_FEATURES[i]) != 0)
+            {
+                gText = runPlugin(SPAN_GAMIT_PLUGINS[i], context, gText);
+
+                if ((SPAN_GAMIT_FEATURES[i] & LINK_FEATURES) != 0)
+                {
+                    // Link urls and titles may come from the link definitions,
+                    // so we can no longer tell what the text holds.
+                    features = ALL;
+                }
+            }
+        }
+
+        return (features & HARD_BREAK) != 0
+                ? gText.replaceAll(" {2,}\n", " <br>\n")
+                : gText;
+    }
+
+    /**
+     * Run the plugin, telling the {@code listener} about it.
+     */
+    private static TextEditor runPlugin(
+            final TextConvertor tc,
+            final String className,
+            final PipelineListener listener,
+            final ConversionContext context,
+            final TextEditor text
+    )
+    {
+        final int depth = context.incrementPluginDepth();
+        final int inputLength = text.length();
+
+        try
+        {
+            listener.beforePlugin(className, inputLength, depth);
+
+            final long start = System.nanoTime();
+            final TextEditor rtn = tc.execute(context, text);
+            final long nanos = System.nanoTime() - start;
+
+            listener.afterPlugin(className, inputLength, rtn.length(), nanos, depth);
+
+            return rtn;
+        } finally
+        {
+            context.decrementPluginDepth();
+        }
     }
 
-    private TextEditor runGamit(final List<String> gamit, final TextEditor text)
+    private TextEditor runGamit(
+            final List<String> gamit,
+            final ConversionContext context,
+            final TextEditor text
+    )
     {
         final Ref<TextEditor> textRef = Ref.val(text);
 
         gamit.stream().forEachOrdered(className
-                -> textRef.val = runPlugin(className, textRef.val)
+                -> textRef.val = runPlugin(className, context, textRef.val)
         );
 
         return textRef.val;
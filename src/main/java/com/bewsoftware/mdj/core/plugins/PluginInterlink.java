@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * This class acts as a facade to the plugins.
@@ -55,128 +56,128 @@ public class PluginInterlink
     {
     }
 
-    public static TextEditor cleanupMarkdownText(final TextEditor text)
+    public static TextEditor cleanupMarkdownText(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("CleanupMarkdownText", text);
+        return PLUGIN_CONTROLLER.runPlugin("CleanupMarkdownText", context, text);
     }
 
-    public static TextEditor doAnchors(final TextEditor text)
+    public static TextEditor doAnchors(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("Anchors", text);
+        return PLUGIN_CONTROLLER.runPlugin("Anchors", context, text);
     }
 
-    public static TextEditor doAutoLinks(final TextEditor text)
+    public static TextEditor doAutoLinks(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("AutoLinks", text);
+        return PLUGIN_CONTROLLER.runPlugin("AutoLinks", context, text);
     }
 
-    public static TextEditor doBlockQuotes(final TextEditor text)
+    public static TextEditor doBlockQuotes(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("BlockQuotes", text);
+        return PLUGIN_CONTROLLER.runPlugin("BlockQuotes", context, text);
     }
 
-    public static TextEditor doCodeBlocks(final TextEditor text)
+    public static TextEditor doCodeBlocks(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("CodeBlocks", text);
+        return PLUGIN_CONTROLLER.runPlugin("CodeBlocks", context, text);
     }
 
-    public static TextEditor doCodeSpans(final TextEditor text)
+    public static TextEditor doCodeSpans(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("CodeSpans", text);
+        return PLUGIN_CONTROLLER.runPlugin("CodeSpans", context, text);
     }
 
-    public static TextEditor doDelIns(final TextEditor text)
+    public static TextEditor doDelIns(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("DelIns", text);
+        return PLUGIN_CONTROLLER.runPlugin("DelIns", context, text);
     }
 
-    public static TextEditor doFencedCodeBlocks(final TextEditor text)
+    public static TextEditor doFencedCodeBlocks(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("FencedCodeBlocks", text);
+        return PLUGIN_CONTROLLER.runPlugin("FencedCodeBlocks", context, text);
     }
 
-    public static TextEditor doHeaders(final TextEditor text)
+    public static TextEditor doHeaders(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("Headers", text);
+        return PLUGIN_CONTROLLER.runPlugin("Headers", context, text);
     }
 
-    public static TextEditor doHorizontalRules(final TextEditor text)
+    public static TextEditor doHorizontalRules(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("HorizontalRules", text);
+        return PLUGIN_CONTROLLER.runPlugin("HorizontalRules", context, text);
     }
 
-    public static TextEditor doImages(final TextEditor text)
+    public static TextEditor doImages(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("Images", text);
+        return PLUGIN_CONTROLLER.runPlugin("Images", context, text);
     }
 
-    public static TextEditor doLists(final TextEditor text)
+    public static TextEditor doLists(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("Lists", text);
+        return PLUGIN_CONTROLLER.runPlugin("Lists", context, text);
     }
 
-    public static TextEditor doStrongEmAndBoldItalics(final TextEditor text)
+    public static TextEditor doStrongEmAndBoldItalics(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("StrongEmAndBoldItalics", text);
+        return PLUGIN_CONTROLLER.runPlugin("StrongEmAndBoldItalics", context, text);
     }
 
-    public static TextEditor doSubSup(final TextEditor text)
+    public static TextEditor doSubSup(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("SubSup", text);
+        return PLUGIN_CONTROLLER.runPlugin("SubSup", context, text);
     }
 
-    public static TextEditor doTables(final TextEditor text)
+    public static TextEditor doTables(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("Tables", text);
+        return PLUGIN_CONTROLLER.runPlugin("Tables", context, text);
     }
 
-    public static TextEditor encodeAmpsAndAngles(final TextEditor text)
+    public static TextEditor encodeAmpsAndAngles(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("EncodeAmpsAndAngles", text);
+        return PLUGIN_CONTROLLER.runPlugin("EncodeAmpsAndAngles", context, text);
     }
 
-    public static TextEditor encodeBackslashEscapes(final TextEditor text)
+    public static TextEditor encodeBackslashEscapes(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("EncodeBackslashEscapes", text);
+        return PLUGIN_CONTROLLER.runPlugin("EncodeBackslashEscapes", context, text);
     }
 
-    public static TextEditor encodeCode(final TextEditor text)
+    public static TextEditor encodeCode(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("EncodeCode", text);
+        return PLUGIN_CONTROLLER.runPlugin("EncodeCode", context, text);
     }
 
-    public static TextEditor escapeSpecialCharsWithinTagAttributes(final TextEditor text)
+    public static TextEditor escapeSpecialCharsWithinTagAttributes(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("EscapeSpecialCharsWithinTagAttributes", text);
+        return PLUGIN_CONTROLLER.runPlugin("EscapeSpecialCharsWithinTagAttributes", context, text);
     }
 
-    public static TextEditor formParagraphs(final TextEditor text)
+    public static TextEditor formParagraphs(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("FormParagraphs", text);
+        return PLUGIN_CONTROLLER.runPlugin("FormParagraphs", context, text);
     }
 
-    public static TextEditor hashHTMLBlocks(final TextEditor text)
+    public static TextEditor hashHTMLBlocks(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("HashHTMLBlocks", text);
+        return PLUGIN_CONTROLLER.runPlugin("HashHTMLBlocks", context, text);
     }
 
-    public static TextEditor runBlockGamut(final TextEditor text)
+    public static TextEditor runBlockGamut(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runBlockGamut(text);
+        return PLUGIN_CONTROLLER.runBlockGamut(context, text);
     }
 
-    public static TextEditor runSpanGamut(final TextEditor text)
+    public static TextEditor runSpanGamut(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runSpanGamut(text);
+        return PLUGIN_CONTROLLER.runSpanGamut(context, text);
     }
 
-    public static TextEditor stripLinkDefinitions(final TextEditor text)
+    public static TextEditor stripLinkDefinitions(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("StripLinkDefinitions", text);
+        return PLUGIN_CONTROLLER.runPlugin("StripLinkDefinitions", context, text);
     }
 
-    public static TextEditor unEscapeSpecialChars(final TextEditor text)
+    public static TextEditor unEscapeSpecialChars(final ConversionContext context, final TextEditor text)
     {
-        return PLUGIN_CONTROLLER.runPlugin("UnEscapeSpecialChars", text);
+        return PLUGIN_CONTROLLER.runPlugin("UnEscapeSpecialChars", context, text);
     }
 }
@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import com.bewsoftware.mdj.core.utils.LinkDefinition;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,7 +46,6 @@ import java.util.regex.Pattern;
 import static com.bewsoftware.mdj.core.plugins.PluginInterlink.encodeAmpsAndAngles;
 import static com.bewsoftware.mdj.core.plugins.TextConvertor.replaceAll;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CLASS_REGEX_OPT;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.linkDefinitions;
 import static java.util.regex.Pattern.MULTILINE;
 import static java.util.regex.Pattern.compile;
 
@@ -64,7 +64,7 @@ public class StripLinkDefinitions implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
       final   Pattern p = compile(
                 "^[ ]{0,3}\\[(?<id>.+)\\]:"
@@ -96,7 +96,7 @@ public class StripLinkDefinitions implements TextConvertor
 
             if (url != null)
             {
-                url = encodeAmpsAndAngles(new TextEditor(url)).toString();
+                url = encodeAmpsAndAngles(context, new TextEditor(url)).toString();
             }
 
             if (title == null)
@@ -105,7 +105,7 @@ public class StripLinkDefinitions implements TextConvertor
             }
 
             title = replaceAll(title, "\"", "&quot;");
-            linkDefinitions.put(id, new LinkDefinition(classes, url, title));
+            context.getLinkDefinitions().put(id, new LinkDefinition(classes, url, title));
 
             return "";
         });
@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * Build subscripts and superscripts.
@@ -54,7 +55,7 @@ public class SubSup implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         text.replaceAll("(?<![-:])(--)(?![-:])(?=\\S)(.+?)(?<=\\S)\\1", "<sub>$2</sub>");
         text.replaceAll("(\\+\\+)(?=\\S)(.+?)(?<=\\S)\\1", "<sup>$2</sup>");
@@ -39,8 +39,8 @@ package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
 import com.bewsoftware.mdj.core.plugins.replacements.Table;
-
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import com.bewsoftware.mdj.core.plugins.replacements.TableScanner;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * Build tables.
@@ -98,10 +98,31 @@ public class Tables implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
         // Escaped pipes need to be handled
-        text.replaceAll("\\x5C\\x7C", CHAR_PROTECTOR.encode("|"));
-        return text.replaceAll(Table.PATTERN, new Table());
+        text.replaceAll("\\x5C\\x7C", context.getCharProtector().encode("|"));
+
+        final String s = text.toString();
+        final TableScanner scanner = new TableScanner(s);
+
+        if (scanner.find(0))
+        {
+            final Table table = new Table(context);
+            final StringBuilder sb = new StringBuilder(s.length() + (s.length() >> 1));
+            int lastEnd = 0;
+
+            do
+            {
+                sb.append(s, lastEnd, scanner.getStart());
+                table.appendTo(scanner, sb);
+                lastEnd = scanner.getEnd();
+            } while (scanner.find(lastEnd));
+
+            sb.append(s, lastEnd, s.length());
+            text.setText(sb);
+        }
+
+        return text;
     }
 }
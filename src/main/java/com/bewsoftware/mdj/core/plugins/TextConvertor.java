@@ -37,11 +37,15 @@
  */
 package com.bewsoftware.mdj.core.plugins;
 
+import com.bewsoftware.mdj.core.AppendingReplacement;
 import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import static java.util.regex.Pattern.MULTILINE;
 
 /**
  * TextConvertor interface description.
@@ -55,7 +59,7 @@ public interface TextConvertor
 {
     public static boolean hasParagraphBreak(final TextEditor text)
     {
-        return text.toString().contains("\n\n");
+        return text.contains("\n\n");
     }
 
     public static boolean isEmptyString(final String text)
@@ -63,11 +67,13 @@ public interface TextConvertor
         return text == null || text.isEmpty();
     }
 
-    public static String protectEmphasis(final String subtext)
+    public static String protectEmphasis(final ConversionContext context, final String subtext)
     {
+        final CharacterProtector charProtector = context.getCharProtector();
+
         // protect emphasis (* and _) within urls
-        String rtn = subtext.replaceAll("\\*", CHAR_PROTECTOR.encode("*"));
-        rtn = rtn.replaceAll("_", CHAR_PROTECTOR.encode("_"));
+        String rtn = subtext.replaceAll("\\*", charProtector.encode("*"));
+        rtn = rtn.replaceAll("_", charProtector.encode("_"));
 
         return subtext;
     }
@@ -78,9 +84,9 @@ public interface TextConvertor
             final String replacement
     )
     {
-        return new TextEditor(text)
-                .replaceAll(regex, replacement)
-                .toString();
+        return text.isEmpty()
+                ? text
+                : Pattern.compile(regex, MULTILINE).matcher(text).replaceAll(replacement);
     }
 
     public static String replaceAll(
@@ -89,10 +95,42 @@ public interface TextConvertor
             final Replacement replacement
     )
     {
-        return new TextEditor(text)
-                .replaceAll(pattern, replacement)
-                .toString();
+        final Matcher m = pattern.matcher(text);
+        String rtn = text;
+
+        if (m.find())
+        {
+            final StringBuilder sb = new StringBuilder(text.length());
+            int lastIndex = 0;
+
+            do
+            {
+                sb.append(text, lastIndex, m.start());
+
+                if (replacement instanceof AppendingReplacement appending)
+                {
+                    appending.appendTo(m, sb);
+                } else
+                {
+                    sb.append(replacement.process(m));
+                }
+
+                lastIndex = m.end();
+            } while (m.find());
+
+            rtn = sb.append(text, lastIndex, text.length()).toString();
+        }
+
+        return rtn;
     }
 
-    public TextEditor execute(final TextEditor text);
+    /**
+     * Convert the text.
+     *
+     * @param context the state of the current conversion.
+     * @param text    to be converted.
+     *
+     * @return the converted text.
+     */
+    public TextEditor execute(final ConversionContext context, final TextEditor text);
 }
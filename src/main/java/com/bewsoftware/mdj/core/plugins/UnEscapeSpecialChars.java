@@ -38,8 +38,7 @@
 package com.bewsoftware.mdj.core.plugins;
 
 import com.bewsoftware.mdj.core.TextEditor;
-
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.CHAR_PROTECTOR;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 
 /**
  * UnEscapeSpecialChars class description.
@@ -56,14 +55,8 @@ public class UnEscapeSpecialChars implements TextConvertor
     }
 
     @Override
-    public TextEditor execute(final TextEditor text)
+    public TextEditor execute(final ConversionContext context, final TextEditor text)
     {
-        CHAR_PROTECTOR.getAllEncodedTokens().forEach(hash ->
-        {
-            final String plaintext = CHAR_PROTECTOR.decode(hash);
-            text.replaceAllLiteral(hash, plaintext);
-        });
-
-        return text;
+        return text.rewrite(context.getCharProtector()::decodeAll);
     }
 }
@@ -38,8 +38,9 @@
 package com.bewsoftware.mdj.core.plugins.replacements;
 
 import com.bewsoftware.mdj.MarkdownProcessor;
-import com.bewsoftware.mdj.core.Replacement;
+import com.bewsoftware.mdj.core.AppendingReplacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import com.bewsoftware.mdj.core.utils.CharacterProtector;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -49,7 +50,6 @@ import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addClass;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addId;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CODE_BLOCK_BEGIN;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CODE_BLOCK_END;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.HTML_PROTECTOR;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.LANG_IDENTIFIER;
 import static java.util.regex.Pattern.MULTILINE;
 import static java.util.regex.Pattern.compile;
@@ -62,26 +62,31 @@ import static java.util.regex.Pattern.compile;
  * @since 0.6.7
  * @version 0.8.0
  */
-public class CodeBlock implements Replacement
+public class CodeBlock implements AppendingReplacement
 {
 
+    private final ConversionContext context;
+
     private final boolean fencedCode;
 
     private Matcher m;
 
-    public CodeBlock(final boolean fencedCode)
+    public CodeBlock(final ConversionContext context, final boolean fencedCode)
     {
+        this.context = context;
         this.fencedCode = fencedCode;
     }
 
     @Override
-    public String process(final Matcher m)
+    public void appendTo(final Matcher m, final StringBuilder sb)
     {
         this.m = m;
         final String text = getPreparedBodyText(m);
         final String replacement = getPreparedReplacementText(m, text);
 
-        return "\n" + CODE_BLOCK_BEGIN + HTML_PROTECTOR.encode(replacement) + CODE_BLOCK_END + "\n";
+        sb.append('\n').append(CODE_BLOCK_BEGIN)
+                .append(context.getHtmlProtector().encode(replacement))
+                .append(CODE_BLOCK_END).append('\n');
     }
 
     private String getPreparedBodyText(final Matcher m1)
@@ -94,7 +99,7 @@ public class CodeBlock implements Replacement
         }
 
         unHashBlocks(ed);
-        encodeCode(ed);
+        encodeCode(context, ed);
         ed.detabify().deleteAll("\\A\\n+").deleteAll("\\s+\\z");
 
         return ed.toString();
@@ -154,7 +159,7 @@ public class CodeBlock implements Replacement
         while (mLocal.find())
         {
             final String encoded = mLocal.group("encoded");
-            final String decoded = HTML_PROTECTOR.decode(encoded);
+            final String decoded = context.getHtmlProtector().decode(encoded);
 
             if (decoded != null)
             {
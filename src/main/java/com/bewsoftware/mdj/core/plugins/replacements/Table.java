@@ -38,8 +38,8 @@
 package com.bewsoftware.mdj.core.plugins.replacements;
 
 import com.bewsoftware.mdj.MarkdownProcessor;
-import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,20 +48,21 @@ import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addClass;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addId;
 import static com.bewsoftware.mdj.core.plugins.utils.Attributes.addStyle;
 import static com.bewsoftware.mdj.core.plugins.utils.Constants.CLASS_REGEX;
-import static com.bewsoftware.mdj.core.plugins.utils.Constants.HTML_PROTECTOR;
 import static com.bewsoftware.utils.string.Strings.notBlank;
-import static java.util.regex.Pattern.MULTILINE;
 import static java.util.regex.Pattern.compile;
 
 /**
  * Table class moved out from {@link MarkdownProcessor} class.
+ * <p>
+ * Builds each table found by a {@link TableScanner}, a row at a time. The
+ * span gamut is run over each cell on its own.
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
  * @since 0.6.3
  * @version 0.6.13
  */
-public class Table implements Replacement
+public class Table
 {
 
     private static final String CAPTION_BORDER
@@ -78,46 +79,28 @@ public class Table implements Replacement
     private static final String TABLE_BORDER
             = "border: %1$dpx solid black;border-collapse: collapse;padding: %2$dpx";
 
-    private static final String TAG_ID = "\\[#\\w+\\]";
+    /**
+     * The style of each column, from the delimiter row.
+     */
+    private String[] columnStyles;
 
-    /*
-     * "caption" is the Title for the table
-     * "header" is the first row of the table
-     * "delrow" is the delimiter row
-     * "datarows" contains the body of the table
-     * "tail" contains straggler rows just following the table
-     *
-     * The table should be followed by a blank line
+    private final ConversionContext context;
+
+    private TableRow delimiterRow;
+
+    /**
+     * Re-used for each table.
      */
-    public static final Pattern PATTERN = compile("(?<=^\\n+)"
-            + "(?<caption>^(?:[ ]*\\[\\w+[^\\]]*?\\][ ]*|[ ]*.*?\\w+.*?[ ]*)\\n)?"
-            + "(?<header>^\\|(?:.+?\\|)+?(?:\\[[^\\]]*?\\])?)[ ]*\\n"
-            + "(?<delrow>\\|(?:[ ]*([:-]{1}[-]+?[:-]{1}|[-]+?[:][-]+?)[ ]*\\|)+?(?:"
-            + TAG_ID + ")?(?:\\[[^\\]]*?\\])?)[ ]*\\n"
-            + "(?<datarows>(?:\\|(?:[^\\|\\n]*\\|)+(?:"
-            + TAG_ID + ")?(?:\\[[^\\]]*?\\])?[ ]*\\n)*?)?"
-            // Find end of table
-            + "(?="
-            // Blank line
-            + "^\\n"
-            // End of data
-            + "|\\Z)"
-            + "", MULTILINE);
-
-    public Table()
+    private final StringBuilder html = new StringBuilder();
+
+    public Table(final ConversionContext context)
     {
+        this.context = context;
     }
 
-    private static String processGroupText(final String text)
+    private static String rowBorder(final TableRow row)
     {
-        if (notBlank(text))
-        {
-            // Escaped pipes need to be handled
-            return runSpanGamut(new TextEditor(text)).toString();
-        } else
-        {
-            return "";
-        }
+        return String.format(ROW_BORDER, row.getBorderWidth(), row.getCellPadding());
     }
 
     private static boolean rowIsShorterThanHeader(final TableRow dataRow, final TableRow headerRow)
@@ -130,141 +113,113 @@ public class Table implements Replacement
         return hRow.length() == delRow.length();
     }
 
-    @Override
-    public String process(final Matcher m)
+    /**
+     * Build the table just found by the {@code scanner}, and append it to
+     * the {@code result}.
+     *
+     * @param scanner that found the table.
+     * @param result  where the table is to be appended.
+     */
+    public void appendTo(final TableScanner scanner, final StringBuilder result)
     {
-
-        String rtn = m.group();
-
-        final String caption = m.group("caption");
-        final String header = processGroupText(m.group("header")).trim();
-        final String delrow = m.group("delrow").trim();
-        final String datarows = processGroupText(m.group("datarows")).trim();
-
-        final TableRow headerRow = TableRow.parse(header);
+        final TableRow headerRow = TableRow.parse(scanner.getHeader().trim());
         headerRow.setReadOnly();
 
-        final TableRow delimiterRow = TableRow.parse(delrow);
+        delimiterRow = TableRow.parse(scanner.getDelimiterRow().trim());
 
         if (validRowLength(headerRow, delimiterRow))
         {
-            rtn = buildTable(delimiterRow, caption, headerRow, datarows);
+            buildTable(scanner, headerRow, result);
+        } else
+        {
+            result.append(scanner.getText(), scanner.getStart(), scanner.getEnd());
         }
-
-        return rtn;
     }
 
-    private void addBorderStyle(
-            final TableRow headerRow,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int i
-    )
-    {
-        final String tmp = String.format(ROW_BORDER, headerRow.getBorderWidth(),
-                headerRow.getCellPadding());
-        sb.append(addStyle(tmp + delimiterRow.getCell(i)));
-    }
-
-    private void addDataRowAttribute(
+    private void addMissingColumns(
             final TableRow dataRow,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int j
+            final TableRow headerRow,
+            final TableRow attributes,
+            final String border
     )
     {
-        if (dataRow.hasBorder())
-        {
-            final String tmp = String.format(ROW_BORDER, dataRow.getBorderWidth(),
-                    dataRow.getCellPadding());
-            sb.append(addStyle(tmp + delimiterRow.getCell(j)));
-        } else
+        for (int k = dataRow.length(); k < headerRow.length(); k++)
         {
-            processClassesAndDefaultStyle(dataRow, sb, delimiterRow, j);
+            appendTDTag(attributes, border, k, "&nbsp;");
         }
     }
 
-    private void addDefaultRowAttribute(
-            final TableRow defaultRowAttribute,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int j
+    /**
+     * Append the attributes of a cell.
+     *
+     * @param attributes the row whose attributes apply to its cells, or
+     *                   {@code null} if none.
+     * @param border     the border style of the {@code attributes} row, or
+     *                   {@code null} if it has none.
+     * @param column     the cell's column.
+     */
+    private void appendCellAttributes(
+            final TableRow attributes,
+            final String border,
+            final int column
     )
     {
-        if (defaultRowAttribute.hasBorder())
+        if (border != null)
         {
-            final String tmp = String.format(ROW_BORDER, defaultRowAttribute.getBorderWidth(),
-                    defaultRowAttribute.getCellPadding());
-            sb.append(addStyle(tmp + delimiterRow.getCell(j)));
+            html.append(addStyle(border + delimiterRow.getCell(column)));
         } else
         {
-            processClassesAndDefaultStyle(defaultRowAttribute, sb, delimiterRow, j);
-        }
-    }
+            if (attributes != null && attributes.hasClasses())
+            {
+                html.append(addClass(attributes.getClasses()));
+            }
 
-    private void addDelimiterRowDefault(
-            final TableRow delimiterRow,
-            final int i,
-            final StringBuilder sb
-    )
-    {
-        if (!delimiterRow.getCell(i).isEmpty())
-        {
-            sb.append(addStyle(delimiterRow.getCell(i)));
+            html.append(columnStyles[column]);
         }
     }
 
-    private void addMissingColumns(
-            final TableRow dataRow,
-            final TableRow headerRow,
-            final StringBuilder sb,
-            final TableRow defaultRowAttribute,
-            final TableRow delimiterRow
+    private void appendTDTag(
+            final TableRow attributes,
+            final String border,
+            final int column,
+            final String cellContent
     )
     {
-        for (int k = dataRow.length(); k < headerRow.length(); k++)
-        {
-            processTDTag(sb, dataRow, defaultRowAttribute, delimiterRow, k, "&nbsp;");
-        }
+        html.append(INDENT[3]).append("<td");
+        appendCellAttributes(attributes, border, column);
+        html.append(">\n").append(cellContent).append("\n")
+                .append(INDENT[3]).append("</td>\n");
     }
 
-    private String buildTable(
-            final TableRow delimiterRow,
-            final String caption,
+    private void buildTable(
+            final TableScanner scanner,
             final TableRow headerRow,
-            final String datarows
+            final StringBuilder result
     )
     {
-        String rtn;
-        final StringBuilder sb = new StringBuilder();
+        html.setLength(0);
 
-        processDelimiterRow(sb, delimiterRow, caption);
-        processTHeadTag(sb, delimiterRow, headerRow);
+        processDelimiterRow(scanner.getCaption());
+        processTHeadTag(headerRow);
 
-        if (!datarows.trim().isEmpty())
+        if (scanner.getDataRowsEnd() > scanner.getDataRowsStart())
         {
-            processTBodyTag(datarows, sb, delimiterRow, headerRow);
+            processTBodyTag(scanner, headerRow);
         }
 
-        final String out = sb.append("</table>\n").toString();
+        html.append("</table>\n");
         //
         // Encode table html to protect it from further processing.
         //
-        rtn = "\n\n" + HTML_PROTECTOR.encode(out) + "\n\n";
-
-        return rtn;
+        result.append("\n\n").append(context.getHtmlProtector().encode(html.toString())).append("\n\n");
     }
 
-    private void processCaption(
-            final StringBuilder sb,
-            final String caption,
-            final TableRow delimiterRow
-    )
+    private void processCaption(final String caption)
     {
         String text = caption;
 
         boolean captionBorders = false;
-        sb.append(INDENT[1]).append("<caption");
+        html.append(INDENT[1]).append("<caption");
         text = processGroupText(text.trim());
 
         if (text.startsWith("[") && text.endsWith("]"))
@@ -273,42 +228,34 @@ public class Table implements Replacement
             text = text.substring(1, text.length() - 1).trim();
         } else
         {
-            text = processCaptionLookingForClasses(text, sb);
+            text = processCaptionLookingForClasses(text);
         }
 
-        processCaptionBordersAndAttributes(captionBorders, delimiterRow, sb);
+        processCaptionBordersAndAttributes(captionBorders);
 
-        sb.append(">\n").append(text).append("\n")
+        html.append(">\n").append(text).append("\n")
                 .append(INDENT[1]).append("</caption>\n");
     }
 
-    private void processCaptionBordersAndAttributes(
-            final boolean captionBorders,
-            final TableRow delimiterRow,
-            final StringBuilder sb
-    )
+    private void processCaptionBordersAndAttributes(final boolean captionBorders)
     {
         if (captionBorders && delimiterRow.hasAttribute() && delimiterRow.hasBorder())
         {
             final String tmp = String.format(CAPTION_BORDER, delimiterRow.getBorderWidth(),
                     delimiterRow.getCellPadding());
-            sb.append(addStyle(tmp));
+            html.append(addStyle(tmp));
         }
     }
 
-    private void processCaptionIfAny(
-            final String caption,
-            final StringBuilder sb,
-            final TableRow delimiterRow
-    )
+    private void processCaptionIfAny(final String caption)
     {
         if (notBlank(caption))
         {
-            processCaption(sb, caption, delimiterRow);
+            processCaption(caption);
         }
     }
 
-    private String processCaptionLookingForClasses(final String caption, final StringBuilder sb)
+    private String processCaptionLookingForClasses(final String caption)
     {
         String rtn = caption;
 
@@ -317,25 +264,21 @@ public class Table implements Replacement
         if (tc.hasClasses())
         {
             rtn = tc.caption;
-            sb.append(addClass(tc.classes));
+            html.append(addClass(tc.classes));
         }
 
         return rtn;
     }
 
-    private void processClassesAndDefaultStyle(
-            final TableRow headerRow,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int i
-    )
+    private String processCell(final String cell)
     {
-        processHeaderRowClasses(headerRow, sb);
-        addDelimiterRowDefault(delimiterRow, i, sb);
+        return processGroupText(cell).trim();
     }
 
-    private void processColumnFormatting(final TableRow delimiterRow)
+    private void processColumnFormatting()
     {
+        columnStyles = new String[delimiterRow.length()];
+
         for (int i = 0; i < delimiterRow.length(); i++)
         {
             String delimiterColumn = delimiterRow.getCell(i).trim();
@@ -368,24 +311,24 @@ public class Table implements Replacement
                 {
                 }
             }
+
+            columnStyles[i] = addStyle(delimiterRow.getCell(i));
         }
     }
 
     private void processDataRow(
             final String dataRowString,
             final TableRowList rotatingListOfRowAttributes,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
             final TableRow headerRow
     )
     {
         final TableRow dataRow = TableRow.parse(dataRowString);
         rotatingListOfRowAttributes.add(dataRow);
-        sb.append(INDENT[2]).append("<tr");
+        html.append(INDENT[2]).append("<tr");
 
-        processDataRowId(dataRow, sb);
+        processDataRowId(dataRow);
 
-        sb.append(">\n");
+        html.append(">\n");
         TableRow defaultRowAttribute = null;
 
         if (rotatingListOfRowAttributes.hasNext())
@@ -393,236 +336,152 @@ public class Table implements Replacement
             defaultRowAttribute = rotatingListOfRowAttributes.getNext();
         }
 
-        processRowColumns(dataRow, delimiterRow, sb, defaultRowAttribute);
+        final TableRow attributes = dataRow.hasAttribute() ? dataRow : defaultRowAttribute;
+        final String border = attributes != null && attributes.hasBorder() ? rowBorder(attributes) : null;
+
+        processRowColumns(dataRow, attributes, border);
 
         if (rowIsShorterThanHeader(dataRow, headerRow))
         {
-            addMissingColumns(dataRow, headerRow, sb, defaultRowAttribute, delimiterRow);
+            addMissingColumns(dataRow, headerRow, attributes, border);
         }
 
-        sb.append(INDENT[2]).append("</tr>\n");
+        html.append(INDENT[2]).append("</tr>\n");
     }
 
-    private void processDataRowId(final TableRow dataRow, final StringBuilder sb)
+    private void processDataRowId(final TableRow dataRow)
     {
         if (dataRow.hasId())
         {
-            sb.append(addId(dataRow.getId()));
-        }
-    }
-
-    private void processDataRows(
-            final String[] dataRows,
-            final TableRowList rotatingListOfRowAttributes,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final TableRow headerRow
-    )
-    {
-        for (String dataRow : dataRows)
-        {
-            processDataRow(dataRow, rotatingListOfRowAttributes, sb, delimiterRow, headerRow);
+            html.append(addId(dataRow.getId()));
         }
     }
 
-    private void processDelimiterRow(
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final String caption
-    )
+    private void processDelimiterRow(final String caption)
     {
-        processTableTag(sb, delimiterRow);
-        processCaptionIfAny(caption, sb, delimiterRow);
-        processColumnFormatting(delimiterRow);
+        processTableTag();
+        processCaptionIfAny(caption);
+        processColumnFormatting();
         delimiterRow.setReadOnly();
     }
 
-    private void processDelimiterRowAttributes(final TableRow delimiterRow, final StringBuilder sb)
+    private void processDelimiterRowAttributes()
     {
         if (delimiterRow.hasAttribute())
         {
-            processDelimiterRowId(delimiterRow, sb);
+            processDelimiterRowId();
 
             if (delimiterRow.hasBorder())
             {
                 final String tmp = String.format(TABLE_BORDER, delimiterRow.getBorderWidth(),
                         delimiterRow.getCellPadding());
-                sb.append(addStyle(tmp));
+                html.append(addStyle(tmp));
             } else
             {
-                sb.append(addClass(delimiterRow.getClasses()));
+                html.append(addClass(delimiterRow.getClasses()));
             }
         }
     }
 
-    private void processDelimiterRowId(final TableRow delimiterRow, final StringBuilder sb)
+    private void processDelimiterRowId()
     {
         if (delimiterRow.hasId())
         {
-            sb.append(addId(delimiterRow.getId()));
+            html.append(addId(delimiterRow.getId()));
         }
     }
 
-    private void processHeaderRowClasses(final TableRow headerRow, final StringBuilder sb)
+    private String processGroupText(final String text)
     {
-        if (headerRow.hasClasses())
+        if (notBlank(text))
         {
-            sb.append(addClass(headerRow.getClasses()));
+            // Escaped pipes need to be handled
+            return runSpanGamut(context, new TextEditor(text)).toString();
+        } else
+        {
+            return "";
         }
     }
 
-    private void processHeaderRowId(final TableRow headerRow, final StringBuilder sb)
+    private void processHeaderRowId(final TableRow headerRow)
     {
         if (headerRow.hasId())
         {
-            sb.append(addId(headerRow.getId()));
+            html.append(addId(headerRow.getId()));
         }
     }
 
-    private void processRowColumns(
-            final TableRow dataRow,
-            final TableRow delimiterRow,
-            final StringBuilder sb,
-            final TableRow defaultRowAttribute
-    )
+    private void processRowColumns(final TableRow dataRow, final TableRow attributes, final String border)
     {
         for (int i = 0; i < dataRow.length() && i < delimiterRow.length(); i++)
         {
-            processTDTag(sb, dataRow, defaultRowAttribute, delimiterRow, i, dataRow.getCell(i).trim());
+            appendTDTag(attributes, border, i, processCell(dataRow.getCell(i)));
         }
     }
 
-    private void processTBodyTag(
-            final String datarows,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final TableRow headerRow
-    )
-    {
-        final String[] dataRows = datarows.split("\n");
-
-        final TableRowList rotatingListOfRowAttributes = new TableRowList(dataRows.length);
-
-        sb.append(INDENT[1]).append("<tbody>\n");
-
-        processDataRows(dataRows, rotatingListOfRowAttributes, sb, delimiterRow, headerRow);
-
-        sb.append(INDENT[1]).append("</tbody>\n");
-    }
-
-    private void processTDTag(
-            final StringBuilder sb,
-            final TableRow dataRow,
-            final TableRow defaultRowAttribute,
-            final TableRow delimiterRow,
-            final int index,
-            final String cellContent
-    )
+    /**
+     * Each data row is parsed, and built, in turn, straight from the text.
+     */
+    private void processTBodyTag(final TableScanner scanner, final TableRow headerRow)
     {
-        sb.append(INDENT[3]).append("<td");
+        final String text = scanner.getText();
+        final int end = scanner.getDataRowsEnd();
+        final TableRowList rotatingListOfRowAttributes = new TableRowList(scanner.getDataRowLines());
 
-        processTDTagAttributes(dataRow, sb, delimiterRow, index, defaultRowAttribute);
+        html.append(INDENT[1]).append("<tbody>\n");
 
-        sb.append(">\n").append(cellContent).append("\n")
-                .append(INDENT[3]).append("</td>\n");
-    }
-
-    private void processTDTagAttributes(
-            final TableRow dataRow,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int index,
-            final TableRow defaultRowAttribute
-    )
-    {
-        if (dataRow.hasAttribute())
-        {
-            addDataRowAttribute(dataRow, sb, delimiterRow, index);
-        } else
+        for (int i = scanner.getDataRowsStart(); i < end;)
         {
-            if (defaultRowAttribute != null)
-            {
-                addDefaultRowAttribute(defaultRowAttribute, sb, delimiterRow, index);
-            } else
+            final int lineEnd = text.indexOf('\n', i);
+
+            //
+            // A row's attributes may run on over a blank line
+            //
+            if (lineEnd > i)
             {
-                addDelimiterRowDefault(delimiterRow, index, sb);
+                processDataRow(text.substring(i, lineEnd), rotatingListOfRowAttributes, headerRow);
             }
-        }
-    }
 
-    private void processTHAttributes(
-            final TableRow headerRow,
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final int i
-    )
-    {
-        if (headerRow.hasBorder())
-        {
-            addBorderStyle(headerRow, sb, delimiterRow, i);
-        } else
-        {
-            processClassesAndDefaultStyle(headerRow, sb, delimiterRow, i);
+            i = lineEnd + 1;
         }
-    }
-
-    private void processTHTag(
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final TableRow headerRow,
-            final int i
-    )
-    {
-        sb.append(INDENT[3]).append("<th");
 
-        if (headerRow.hasAttribute())
-        {
-            processTHAttributes(headerRow, sb, delimiterRow, i);
-        } else
-        {
-            addDelimiterRowDefault(delimiterRow, i, sb);
-        }
-
-        sb.append(">\n").append(headerRow.getCell(i).trim()).append("\n")
-                .append(INDENT[3]).append("</th>\n");
+        html.append(INDENT[1]).append("</tbody>\n");
     }
 
-    private void processTHTags(
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final TableRow headerRow
-    )
+    private void processTHTag(final TableRow headerRow, final TableRow attributes, final String border, final int i)
     {
-        for (int i = 0; i < delimiterRow.length(); i++)
-        {
-            processTHTag(sb, delimiterRow, headerRow, i);
-        }
+        html.append(INDENT[3]).append("<th");
+        appendCellAttributes(attributes, border, i);
+        html.append(">\n").append(processCell(headerRow.getCell(i))).append("\n")
+                .append(INDENT[3]).append("</th>\n");
     }
 
-    private void processTHeadTag(
-            final StringBuilder sb,
-            final TableRow delimiterRow,
-            final TableRow headerRow
-    )
+    private void processTHeadTag(final TableRow headerRow)
     {
-        sb.append(INDENT[1]).append("<thead>\n")
+        html.append(INDENT[1]).append("<thead>\n")
                 .append(INDENT[2]).append("<tr");
 
-        processHeaderRowId(headerRow, sb);
+        processHeaderRowId(headerRow);
 
-        sb.append(">\n");
+        html.append(">\n");
 
-        processTHTags(sb, delimiterRow, headerRow);
+        final TableRow attributes = headerRow.hasAttribute() ? headerRow : null;
+        final String border = attributes != null && attributes.hasBorder() ? rowBorder(attributes) : null;
+
+        for (int i = 0; i < delimiterRow.length(); i++)
+        {
+            processTHTag(headerRow, attributes, border, i);
+        }
 
-        sb.append(INDENT[2]).append("</tr>\n")
+        html.append(INDENT[2]).append("</tr>\n")
                 .append(INDENT[1]).append("</thead>\n");
     }
 
-    private void processTableTag(final StringBuilder sb, final TableRow delimiterRow)
+    private void processTableTag()
     {
-        sb.append("<table");
-        processDelimiterRowAttributes(delimiterRow, sb);
-        sb.append(">\n");
+        html.append("<table");
+        processDelimiterRowAttributes();
+        html.append(">\n");
     }
 
     /**
@@ -52,10 +52,20 @@ import static java.lang.Integer.parseInt;
 class TableRow
 {
 
+    private static final Pattern BORDER_SETTING = Pattern.compile("^\\d+$");
+
     private static final int DEFAULT_BORDERWIDTH = 1;
 
     private static final int DEFAULT_CELLPADDING = 5;
 
+    private static final Pattern ID_AND_CLASS_ATTRIBUTES = Pattern.compile("^" + ID_REGEX_OPT + CLASS_REGEX + "$");
+
+    private static final Pattern ID_ATTRIBUTE = Pattern.compile("^" + ID_REGEX_OPT + "$");
+
+    private static final Pattern ID_ATTRIBUTE_WITH_BORDER_SETTINGS = Pattern.compile("^" + ID_REGEX_OPT
+            + "\\[(?<borderWidth>\\d+)"
+            + "(?:(?:[, ][ ]*)(?<cellPadding>\\d+))?\\]$");
+
     /**
      * The raw unprocessed row text.
      */
@@ -95,6 +105,18 @@ class TableRow
         final TableRow tr = new TableRow(text);
         final String data = text.substring(1).trim();
         tr.cells = data.split("\\|");
+
+        //
+        // A row of nothing but pipes and spaces is still one (empty) cell
+        //
+        if (tr.cells.length == 0)
+        {
+            tr.cells = new String[]
+            {
+                ""
+            };
+        }
+
         tr.length = tr.cells.length;
 
         checkForAttributes(tr);
@@ -128,24 +150,21 @@ class TableRow
         //
         // Check for 'id' and 'class' attributes.
         //
-        final Matcher m3 = Pattern.compile("^" + ID_REGEX_OPT + CLASS_REGEX + "$").matcher(tr.classes);
+        final Matcher m3 = ID_AND_CLASS_ATTRIBUTES.matcher(tr.classes);
 
         return m3.find() ? m3 : null;
     }
 
     private static Matcher checkForIdAttribute(final TableRow tr)
     {
-        final Matcher m = Pattern.compile("^" + ID_REGEX_OPT + "$").matcher(tr.classes);
+        final Matcher m = ID_ATTRIBUTE.matcher(tr.classes);
 
         return m.find() ? m : null;
     }
 
     private static Matcher checkForIdAttributeWithBorderSettings(final TableRow tr)
     {
-        final Matcher m2 = Pattern.compile("^" + ID_REGEX_OPT
-                + "\\[(?<borderWidth>\\d+)"
-                + "(?:(?:[, ][ ]*)(?<cellPadding>\\d+))?\\]$")
-                .matcher(tr.classes);
+        final Matcher m2 = ID_ATTRIBUTE_WITH_BORDER_SETTINGS.matcher(tr.classes);
 
         return m2.find() ? m2 : null;
     }
@@ -167,7 +186,7 @@ class TableRow
         //
         // If it is a number, then it is a border setting
         //
-        return tr.classes.substring(1, tr.classes.length() - 1).trim().matches("^\\d+$");
+        return BORDER_SETTING.matcher(tr.classes.substring(1, tr.classes.length() - 1).trim()).matches();
     }
 
     private static void processAttributes(final TableRow tr) throws NumberFormatException
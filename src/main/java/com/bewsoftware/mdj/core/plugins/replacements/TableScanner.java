@@ -0,0 +1,598 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.plugins.replacements;
+
+/**
+ * Finds the tables in a text, a line at a time.
+ * <p>
+ * A table follows a blank line. It may start with a caption line. Then come
+ * the header row, and the delimiter row, followed by any number of data
+ * rows. It runs until a blank line, or the end of the text. For the full
+ * syntax, see {@link com.bewsoftware.mdj.core.plugins.Tables Tables}.
+ * <p>
+ * Each row is checked against its grammar by hand, so that the time taken
+ * grows with the length of the table, and no more, however many rows or
+ * columns it has.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public final class TableScanner
+{
+    private static final int NOT_FOUND = -1;
+
+    private int bracketAt = NOT_FOUND;
+
+    private int bracketFrom = Integer.MAX_VALUE;
+
+    private int dataRowLines;
+
+    private int dataRowsStart;
+
+    private int delimiterRowEnd;
+
+    private int delimiterRowStart;
+
+    private int end;
+
+    /**
+     * Where the last row matched ends, before any trailing spaces.
+     */
+    private int groupEnd;
+
+    private int headerEnd;
+
+    private int headerStart;
+
+    private final int length;
+
+    private int start;
+
+    private final String text;
+
+    /**
+     * Instantiate a scanner for the text.
+     *
+     * @param text to be scanned.
+     */
+    public TableScanner(final String text)
+    {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    private static boolean isDelimiterChar(final char c)
+    {
+        return c == ' ' || c == ':' || c == '-';
+    }
+
+    private static boolean isLineTerminator(final char c)
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isWordChar(final char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Find the next table, at or after {@code from}.
+     *
+     * @param from where to start looking.
+     *
+     * @return {@code true} if found.
+     */
+    public boolean find(final int from)
+    {
+        boolean rtn = false;
+        int nl = text.indexOf('\n', from > 0 ? from - 1 : 0);
+
+        while (!rtn && nl != NOT_FOUND && nl + 1 < length)
+        {
+            // Only a table that follows a blank line.
+            if (isLineStart(nl))
+            {
+                rtn = matchTable(nl + 1);
+            }
+
+            nl = text.indexOf('\n', nl + 1);
+        }
+
+        return rtn;
+    }
+
+    /**
+     * The caption line, if any.
+     *
+     * @return the caption, including its line end, or {@code null} if none.
+     */
+    public String getCaption()
+    {
+        return headerStart > start ? text.substring(start, headerStart) : null;
+    }
+
+    /**
+     * The number of lines holding the data rows.
+     *
+     * @return the number of lines.
+     */
+    public int getDataRowLines()
+    {
+        return dataRowLines;
+    }
+
+    /**
+     * Where the data rows end in the text. This is also the end of the
+     * table.
+     *
+     * @return the end of the data rows.
+     */
+    public int getDataRowsEnd()
+    {
+        return end;
+    }
+
+    /**
+     * Where the data rows start in the text. Each of them ends with a
+     * '\n'.
+     *
+     * @return the start of the data rows.
+     */
+    public int getDataRowsStart()
+    {
+        return dataRowsStart;
+    }
+
+    /**
+     * The delimiter row, without its line end.
+     *
+     * @return the delimiter row.
+     */
+    public String getDelimiterRow()
+    {
+        return text.substring(delimiterRowStart, delimiterRowEnd);
+    }
+
+    /**
+     * Where the table ends in the text.
+     *
+     * @return the end of the table.
+     */
+    public int getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * The header row, without its line end.
+     *
+     * @return the header row.
+     */
+    public String getHeader()
+    {
+        return text.substring(headerStart, headerEnd);
+    }
+
+    /**
+     * Where the table starts in the text.
+     *
+     * @return the start of the table.
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /**
+     * The text being scanned.
+     *
+     * @return the text.
+     */
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * The end of the line, if a bracketed parameter: "[...]", at {@code from}
+     * is followed by nothing but spaces. Failing that, if there is nothing
+     * but spaces from {@code from}.
+     */
+    private int bracketThenLineEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+
+        if (from < length && text.charAt(from) == '[')
+        {
+            final int close = closingBracket(from + 1);
+
+            if (close != NOT_FOUND && (rtn = spacesThenLineEnd(close + 1)) != NOT_FOUND)
+            {
+                groupEnd = close + 1;
+            }
+        }
+
+        if (rtn == NOT_FOUND && (rtn = spacesThenLineEnd(from)) != NOT_FOUND)
+        {
+            groupEnd = from;
+        }
+
+        return rtn;
+    }
+
+    /**
+     * The end of a caption line holding just a bracketed title, which may
+     * run on to the following lines: "[Title]".
+     */
+    private int bracketedCaptionEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+        int i = from;
+
+        while (i < length && text.charAt(i) == ' ')
+        {
+            i++;
+        }
+
+        if (i + 1 < length && text.charAt(i) == '[' && isWordChar(text.charAt(i + 1)))
+        {
+            final int close = closingBracket(i + 1);
+
+            if (close != NOT_FOUND)
+            {
+                rtn = spacesThenLineEnd(close + 1);
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * The position of the next ']', which may be on a following line.
+     * <p>
+     * The last result is kept, as is where it was looked for from, so that
+     * no part of the text need be searched more than once in a row.
+     */
+    private int closingBracket(final int from)
+    {
+        if (from < bracketFrom)
+        {
+            final int limit = Math.min(bracketFrom, length);
+            int i = from;
+
+            while (i < limit && text.charAt(i) != ']')
+            {
+                i++;
+            }
+
+            if (i < limit)
+            {
+                bracketAt = i;
+            }
+
+            bracketFrom = from;
+        } else if (bracketAt != NOT_FOUND && from > bracketAt)
+        {
+            bracketAt = text.indexOf(']', from);
+            bracketFrom = from;
+        }
+
+        return bracketAt;
+    }
+
+    /**
+     * The end of the data row at {@code from}.
+     * <p>
+     * Its cells are taken up to the last '|' on the line, if it is followed
+     * by nothing but its parameters, and spaces. Failing that, up to each
+     * '|' before it in turn.
+     */
+    private int dataRowEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+
+        if (text.charAt(from) == '|')
+        {
+            final int lineEnd = text.indexOf('\n', from);
+
+            if (lineEnd != NOT_FOUND)
+            {
+                for (int i = lineEnd - 1; rtn == NOT_FOUND && i > from; i--)
+                {
+                    if (text.charAt(i) == '|')
+                    {
+                        rtn = parametersThenLineEnd(i + 1);
+                    }
+                }
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * The end of the delimiter row at {@code from}.
+     * <p>
+     * Its cells are taken up to the first '|' that is followed by nothing
+     * but its parameters, and spaces.
+     */
+    private int delimiterRowEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+        int i = from;
+
+        while (rtn == NOT_FOUND && i < length && text.charAt(i) == '|')
+        {
+            final int cellStart = i + 1;
+            i = cellStart;
+
+            while (i < length && isDelimiterChar(text.charAt(i)))
+            {
+                i++;
+            }
+
+            if (i == length || text.charAt(i) != '|' || !isDelimiterCell(cellStart, i))
+            {
+                break;
+            }
+
+            rtn = parametersThenLineEnd(i + 1);
+        }
+
+        return rtn;
+    }
+
+    /**
+     * The end of the header row at {@code from}.
+     * <p>
+     * It is taken up to the first '|', after some text, that is followed by
+     * nothing but an optional bracketed parameter, and spaces.
+     */
+    private int headerRowEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+
+        if (text.charAt(from) == '|')
+        {
+            for (int i = from + 2; rtn == NOT_FOUND && i < length && !isLineTerminator(text.charAt(i)); i++)
+            {
+                if (text.charAt(i) == '|')
+                {
+                    rtn = bracketThenLineEnd(i + 1);
+                }
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Is the cell, between {@code from} and {@code to}, one of: "---",
+     * ":--", "--:", ":-:", or "-:-", with any number of '-', and any spaces
+     * around it?
+     */
+    private boolean isDelimiterCell(final int from, final int to)
+    {
+        int i = from;
+        int j = to;
+
+        while (i < j && text.charAt(i) == ' ')
+        {
+            i++;
+        }
+
+        while (j > i && text.charAt(j - 1) == ' ')
+        {
+            j--;
+        }
+
+        boolean rtn = j - i >= 3;
+
+        if (rtn)
+        {
+            final int colon = text.indexOf(':', i + 1);
+
+            if (colon > i && colon < j - 1)
+            {
+                // "-:-"
+                for (int k = i; rtn && k < j; k++)
+                {
+                    rtn = k == colon || text.charAt(k) == '-';
+                }
+            } else
+            {
+                // ":--", "--:", and the like
+                for (int k = i + 1; rtn && k < j - 1; k++)
+                {
+                    rtn = text.charAt(k) == '-';
+                }
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Is this the end of the table: a blank line, or the end of the text?
+     */
+    private boolean isEndOfTable(final int i)
+    {
+        return i >= length - 1
+                ? i == length || isLineTerminator(text.charAt(i))
+                : text.charAt(i) == '\n'
+                || (i == length - 2 && text.charAt(i) == '\r' && text.charAt(i + 1) == '\n');
+    }
+
+    private boolean isLineStart(final int i)
+    {
+        boolean rtn = i < length;
+
+        if (rtn && i > 0)
+        {
+            final char c = text.charAt(i - 1);
+            rtn = isLineTerminator(c) && !(c == '\r' && text.charAt(i) == '\n');
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Is there a table, after any caption, at {@code from}?
+     */
+    private boolean matchRows(final int from)
+    {
+        boolean rtn = false;
+
+        headerStart = from;
+
+        int i = from < length ? headerRowEnd(from) : NOT_FOUND;
+
+        if (i != NOT_FOUND)
+        {
+            headerEnd = groupEnd;
+            delimiterRowStart = i;
+            i = i < length ? delimiterRowEnd(i) : NOT_FOUND;
+        }
+
+        if (i != NOT_FOUND)
+        {
+            delimiterRowEnd = groupEnd;
+            dataRowsStart = i;
+            dataRowLines = 0;
+
+            while (i != NOT_FOUND && !isEndOfTable(i))
+            {
+                final int rowStart = i;
+                i = dataRowEnd(i);
+
+                for (int j = rowStart; i != NOT_FOUND && j < i; j++)
+                {
+                    if (text.charAt(j) == '\n')
+                    {
+                        dataRowLines++;
+                    }
+                }
+            }
+
+            end = i;
+            rtn = i != NOT_FOUND;
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Is there a table at {@code from}?
+     * <p>
+     * The caption line may hold a bracketed title, or some text. Failing
+     * those, there may be no caption at all.
+     */
+    private boolean matchTable(final int from)
+    {
+        start = from;
+
+        final int bracketed = bracketedCaptionEnd(from);
+        boolean rtn = bracketed != NOT_FOUND && matchRows(bracketed);
+
+        if (!rtn)
+        {
+            final int plain = textCaptionEnd(from);
+            rtn = plain != NOT_FOUND && plain != bracketed && matchRows(plain);
+        }
+
+        return rtn || matchRows(from);
+    }
+
+    /**
+     * The end of the line, if there is nothing more at {@code from} than an
+     * optional id: "[#id]", an optional bracketed parameter, and spaces.
+     */
+    private int parametersThenLineEnd(final int from)
+    {
+        int rtn = NOT_FOUND;
+        int i = from;
+
+        if (i + 1 < length && text.charAt(i) == '[' && text.charAt(i + 1) == '#')
+        {
+            i += 2;
+
+            while (i < length && isWordChar(text.charAt(i)))
+            {
+                i++;
+            }
+
+            if (i > from + 2 && i < length && text.charAt(i) == ']')
+            {
+                rtn = bracketThenLineEnd(i + 1);
+            }
+        }
+
+        return rtn != NOT_FOUND ? rtn : bracketThenLineEnd(from);
+    }
+
+    /**
+     * The end of the line, if there is nothing but spaces at {@code from}.
+     */
+    private int spacesThenLineEnd(final int from)
+    {
+        int i = from;
+
+        while (i < length && text.charAt(i) == ' ')
+        {
+            i++;
+        }
+
+        return i < length && text.charAt(i) == '\n' ? i + 1 : NOT_FOUND;
+    }
+
+    /**
+     * The end of a caption line holding some text.
+     */
+    private int textCaptionEnd(final int from)
+    {
+        boolean word = false;
+        int i = from;
+
+        while (i < length && !isLineTerminator(text.charAt(i)))
+        {
+            word = word || isWordChar(text.charAt(i));
+            i++;
+        }
+
+        return word && i < length && text.charAt(i) == '\n' ? i + 1 : NOT_FOUND;
+    }
+}
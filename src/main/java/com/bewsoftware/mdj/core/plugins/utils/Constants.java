@@ -37,11 +37,6 @@
  */
 package com.bewsoftware.mdj.core.plugins.utils;
 
-import com.bewsoftware.mdj.core.utils.CharacterProtector;
-import com.bewsoftware.mdj.core.utils.LinkDefinition;
-import java.util.Map;
-import java.util.TreeMap;
-
 /**
  * Constants class description.
  *
@@ -52,7 +47,6 @@ import java.util.TreeMap;
  */
 public interface Constants
 {
-    public static final CharacterProtector CHAR_PROTECTOR = new CharacterProtector();
     public static final int TAB_WIDTH = 4;
 
     public static final String CLASS_REGEX = "\\[@(?<classes>(\\p{Alpha}[^\\]]*?)?(\\b\\p{Alpha}[^\\]]*?)*?)\\]";
@@ -63,13 +57,7 @@ public interface Constants
 
     public static final String CODE_BLOCK_END = " :=-";
 
-    public static final CharacterProtector HTML_PROTECTOR = new CharacterProtector();
-
     public static final String ID_REGEX_OPT = "(?:\\[#(?<id>\\w+)\\])?";
 
     public static final String LANG_IDENTIFIER = "lang:";
-
-    public static final String TARGET = " target=\"" + CHAR_PROTECTOR.encode("_") + "blank\"";
-
-    public static final Map<String, LinkDefinition> linkDefinitions = new TreeMap<>();
 }
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.plugins.utils;
+
+import com.bewsoftware.mdj.core.MultiLiteralReplacer;
+import com.bewsoftware.mdj.core.PipelineListener;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
+import com.bewsoftware.mdj.core.utils.LinkDefinition;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Holds all of the state belonging to the conversion of a single document.
+ * <p>
+ * This replaces the JVM-wide state that used to be kept in {@link Constants}:
+ * the link definitions, both character protectors, and the list nesting
+ * level. A new instance is created for each call to
+ * {@link com.bewsoftware.mdj.MarkdownProcessor#convert(java.lang.String)
+ * MarkdownProcessor.convert()}, and is passed through every plugin, so that
+ * link references cannot leak from one document into the next, and the
+ * protectors are freed once the document is finished.
+ * <p>
+ * An instance is <b>not</b> thread-safe. It is intended to be used by one
+ * thread at a time. The paragraphs processed on the
+ * {@link #getParagraphExecutor() paragraph executor} are each given their
+ * own instance, by {@link #forParagraph()}. All that these share with this
+ * one is its span level state, which is safe to use from any number of
+ * threads at the same time:
+ * <ul>
+ * <li>Each protector keeps its tokens in a concurrent map, and its
+ * literals in atomic arrays, so tokens can be handed out, and looked up,
+ * without a lock.</li>
+ * <li>The link definitions have all been stripped out of the document by
+ * then, so they are only ever read.</li>
+ * <li>The replacement tables are built in a concurrent map, and are only
+ * ever read once built.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class ConversionContext
+{
+    /**
+     * The default for the deepest nesting of block-quotes that will be
+     * processed.
+     */
+    public static final int DEFAULT_MAX_QUOTE_LEVEL = 32;
+
+    private final CharacterProtector charProtector;
+
+    private final CharacterProtector htmlProtector;
+
+    private final Map<String, LinkDefinition> linkDefinitions;
+
+    private final ConcurrentMap<Class<?>, MultiLiteralReplacer> replacers;
+
+    private int blockLevel;
+
+    private int listLevel;
+
+    private int maxQuoteLevel;
+
+    private Appendable output;
+
+    private Executor paragraphExecutor;
+
+    private PipelineListener pipelineListener;
+
+    private int pluginDepth;
+
+    private int quoteLevel;
+
+    private volatile String target;
+
+    public ConversionContext()
+    {
+        this.blockLevel = 0;
+        this.charProtector = new CharacterProtector();
+        this.htmlProtector = new CharacterProtector();
+        this.linkDefinitions = new TreeMap<>();
+        this.listLevel = 0;
+        this.maxQuoteLevel = DEFAULT_MAX_QUOTE_LEVEL;
+        this.pluginDepth = 0;
+        this.quoteLevel = 0;
+        this.replacers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Create a context for a paragraph of the {@code parent}'s document.
+     *
+     * @param parent the context of the whole document.
+     */
+    private ConversionContext(final ConversionContext parent)
+    {
+        this.blockLevel = parent.blockLevel;
+        this.charProtector = parent.charProtector;
+        this.htmlProtector = parent.htmlProtector;
+        this.linkDefinitions = parent.linkDefinitions;
+        this.listLevel = parent.listLevel;
+        this.maxQuoteLevel = parent.maxQuoteLevel;
+        this.pluginDepth = 0;
+        this.quoteLevel = parent.quoteLevel;
+        this.replacers = parent.replacers;
+        this.target = parent.target;
+    }
+
+    /**
+     * Leave a run of the block gamut.
+     *
+     * @return the new block level.
+     */
+    public int decrementBlockLevel()
+    {
+        return --blockLevel;
+    }
+
+    /**
+     * Leave a list.
+     *
+     * @return the new list level.
+     */
+    public int decrementListLevel()
+    {
+        return --listLevel;
+    }
+
+    /**
+     * Leave a plugin.
+     *
+     * @return the new plugin depth.
+     */
+    public int decrementPluginDepth()
+    {
+        return --pluginDepth;
+    }
+
+    /**
+     * Leave a block-quote.
+     *
+     * @return the new quote level.
+     */
+    public int decrementQuoteLevel()
+    {
+        return --quoteLevel;
+    }
+
+    /**
+     * Create a context for the span level processing of one paragraph, on
+     * another thread.
+     * <p>
+     * It shares this context's protectors, link definitions, and replacement
+     * tables. It has the same nesting levels, but counts its own levels from
+     * there. It has no output, paragraph executor, or pipeline listener.
+     *
+     * @return the new context.
+     */
+    public ConversionContext forParagraph()
+    {
+        return new ConversionContext(this);
+    }
+
+    /**
+     * The current block gamut nesting level.
+     * <p>
+     * If it's one, we're processing the top-level blocks of the document.
+     *
+     * @return the block level.
+     */
+    public int getBlockLevel()
+    {
+        return blockLevel;
+    }
+
+    /**
+     * Used to protect special characters from being processed by the
+     * plugins that follow.
+     *
+     * @return the character protector.
+     */
+    public CharacterProtector getCharProtector()
+    {
+        return charProtector;
+    }
+
+    /**
+     * Used to protect finished blocks of HTML from being processed by the
+     * plugins that follow.
+     *
+     * @return the HTML protector.
+     */
+    public CharacterProtector getHtmlProtector()
+    {
+        return htmlProtector;
+    }
+
+    /**
+     * The link definitions stripped from this document.
+     *
+     * @return the link definitions map.
+     */
+    public Map<String, LinkDefinition> getLinkDefinitions()
+    {
+        return linkDefinitions;
+    }
+
+    /**
+     * The current list nesting level.
+     * <p>
+     * If it's zero, we're not in a list.
+     *
+     * @return the list level.
+     */
+    public int getListLevel()
+    {
+        return listLevel;
+    }
+
+    /**
+     * The deepest nesting of block-quotes that will be processed.
+     * <p>
+     * Any block-quote nested deeper than this is left as plain text.
+     *
+     * @return the maximum quote level.
+     */
+    public int getMaxQuoteLevel()
+    {
+        return maxQuoteLevel;
+    }
+
+    /**
+     * Where the span level processing of paragraphs is to be run.
+     *
+     * @return the executor, or {@code null} if each paragraph is to be
+     *         processed in turn, by the calling thread.
+     */
+    public Executor getParagraphExecutor()
+    {
+        return paragraphExecutor;
+    }
+
+    /**
+     * The listener to be told about each plugin as it is run.
+     *
+     * @return the listener, or {@code null} if there isn't one.
+     */
+    public PipelineListener getPipelineListener()
+    {
+        return pipelineListener;
+    }
+
+    /**
+     * The current block-quote nesting level.
+     * <p>
+     * If it's zero, we're not in a block-quote.
+     *
+     * @return the quote level.
+     */
+    public int getQuoteLevel()
+    {
+        return quoteLevel;
+    }
+
+    /**
+     * The replacement table of a plugin, built the first time it is asked
+     * for during this conversion.
+     * <p>
+     * The tokens of the character protector never change during a
+     * conversion, so neither does a table built from them. Once built, a
+     * table is only ever read.
+     *
+     * @param plugin  the class of the plugin the table belongs to.
+     * @param factory builds the table from the character protector.
+     *
+     * @return the replacement table.
+     */
+    public MultiLiteralReplacer getReplacer(
+            final Class<?> plugin,
+            final Function<CharacterProtector, MultiLiteralReplacer> factory
+    )
+    {
+        return replacers.computeIfAbsent(plugin, key -> factory.apply(charProtector));
+    }
+
+    /**
+     * The anchor attribute: {@code target="_blank"}, with the underscore
+     * protected.
+     *
+     * @return the target attribute text.
+     */
+    public String getTarget()
+    {
+        String rtn = target;
+
+        if (rtn == null)
+        {
+            rtn = " target=\"" + charProtector.encode("_") + "blank\"";
+            target = rtn;
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Enter a run of the block gamut.
+     *
+     * @return the new block level.
+     */
+    public int incrementBlockLevel()
+    {
+        return ++blockLevel;
+    }
+
+    /**
+     * Enter a list.
+     *
+     * @return the new list level.
+     */
+    public int incrementListLevel()
+    {
+        return ++listLevel;
+    }
+
+    /**
+     * Enter a plugin.
+     * <p>
+     * This is only kept while there is a
+     * {@link #getPipelineListener() pipeline listener}.
+     *
+     * @return the new plugin depth.
+     */
+    public int incrementPluginDepth()
+    {
+        return ++pluginDepth;
+    }
+
+    /**
+     * Enter a block-quote.
+     *
+     * @return the new quote level.
+     */
+    public int incrementQuoteLevel()
+    {
+        return ++quoteLevel;
+    }
+
+    /**
+     * Check whether finished top-level blocks should be written out
+     * as soon as they are ready.
+     *
+     * @return {@code true} if this conversion is streaming its output.
+     */
+    public boolean isStreaming()
+    {
+        return output != null;
+    }
+
+    /**
+     * Set the deepest nesting of block-quotes that will be processed.
+     * <p>
+     * Each level of nesting runs the block gamut over the quoted text once
+     * more, so this bounds both the time, and the stack, used by hostile
+     * input.
+     *
+     * @param maxQuoteLevel the maximum quote level, at least zero.
+     *
+     * @throws IllegalArgumentException if {@code maxQuoteLevel} is negative.
+     */
+    public void setMaxQuoteLevel(final int maxQuoteLevel)
+    {
+        if (maxQuoteLevel < 0)
+        {
+            throw new IllegalArgumentException("maxQuoteLevel: " + maxQuoteLevel);
+        }
+
+        this.maxQuoteLevel = maxQuoteLevel;
+    }
+
+    /**
+     * Set where finished top-level blocks are to be written.
+     *
+     * @param output the destination, or {@code null} to collect the
+     *               result in the returned {@link com.bewsoftware.mdj.core.TextEditor TextEditor}.
+     */
+    public void setOutput(final Appendable output)
+    {
+        this.output = output;
+    }
+
+    /**
+     * Set where the span level processing of paragraphs is to be run.
+     * <p>
+     * The paragraphs are handed to the {@code executor} all at once, and
+     * their results are put back together in the order they came from the
+     * document. However, while there is a
+     * {@link #getPipelineListener() pipeline listener}, the paragraphs are
+     * processed by the calling thread.
+     *
+     * @param executor the executor, or {@code null} to process each
+     *                 paragraph in turn, by the calling thread.
+     */
+    public void setParagraphExecutor(final Executor executor)
+    {
+        this.paragraphExecutor = executor;
+    }
+
+    /**
+     * Set the listener to be told about each plugin as it is run.
+     *
+     * @param listener the listener, or {@code null} for none.
+     */
+    public void setPipelineListener(final PipelineListener listener)
+    {
+        this.pipelineListener = listener;
+    }
+
+    /**
+     * Write finished HTML to the output.
+     *
+     * @param html the text to write.
+     *
+     * @throws UncheckedIOException if the output throws an {@link IOException}.
+     */
+    public void write(final CharSequence html)
+    {
+        try
+        {
+            output.append(html);
+        } catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
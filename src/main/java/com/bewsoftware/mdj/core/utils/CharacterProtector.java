@@ -37,24 +37,60 @@
  */
 package com.bewsoftware.mdj.core.utils;
 
+import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * CharacterProtector class.
+ * <p>
+ * Each token is a prefix, chosen at random for each protector, followed by
+ * the index of the literal, written with the same letters and digits. So
+ * every token has the same shape as before, {@link #FIND_ENCODED}, but
+ * decoding it is an array lookup. The literals are kept in buckets that
+ * double in size, which are added with a compare-and-set, so handing out a
+ * new token does not need a lock.
+ * </p>
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
  * @since 0.6.7
- * @version 0.8.0
+ * @version 0.8.1
  */
 public class CharacterProtector
 {
+    /**
+     * Enough buckets to hold {@link Integer#MAX_VALUE} literals.
+     */
+    private static final int BUCKETS = 27;
+
+    /**
+     * The first bucket holds {@code 1 << FIRST_BUCKET_BITS} literals.
+     */
+    private static final int FIRST_BUCKET_BITS = 5;
+
+    private static final int FIRST_BUCKET_SIZE = 1 << FIRST_BUCKET_BITS;
+
     private static final String GOOD_CHARS = "0123456789qwertyuiopasdfghjklzxcvbnmQWERTYUIOPASDFGHJKLZXCVBNM";
 
+    /**
+     * The value of each of the {@link #GOOD_CHARS}, or -1.
+     */
+    private static final int[] GOOD_CHAR_VALUES = new int[128];
+
+    /**
+     * Enough base-62 digits for any index: {@code 62^6 > Integer.MAX_VALUE}.
+     */
+    private static final int INDEX_CHARS = 6;
+
     private static final int NUMOFCHARS = 20;
 
     /**
@@ -67,34 +103,168 @@ public class CharacterProtector
      */
     public static final String FIND_ENCODED = "^(?<encoded>[0-9a-zA-Z]{" + NUMOFCHARS + "})$";
 
-    private final ConcurrentMap<String, String> protectMap;
+    private static final int PREFIX_CHARS = NUMOFCHARS - INDEX_CHARS;
+
+    static
+    {
+        Arrays.fill(GOOD_CHAR_VALUES, -1);
+
+        for (int i = 0; i < GOOD_CHARS.length(); i++)
+        {
+            GOOD_CHAR_VALUES[GOOD_CHARS.charAt(i)] = i;
+        }
+    }
+
+    private final AtomicReferenceArray<AtomicReferenceArray<String>> buckets;
+
+    private final AtomicInteger count;
 
-    private final Random rnd;
+    private final String prefix;
 
-    private final ConcurrentMap<String, String> unprotectMap;
+    private final ConcurrentMap<String, String> protectMap;
 
     public CharacterProtector()
     {
-        this.rnd = new Random();
+        this.buckets = new AtomicReferenceArray<>(BUCKETS);
+        this.count = new AtomicInteger();
+        this.prefix = randomString(new Random(), PREFIX_CHARS);
         this.protectMap = new ConcurrentHashMap<>();
-        this.unprotectMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The bucket that holds the literal at {@code index}.
+     */
+    private static int bucket(final int index)
+    {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(index + FIRST_BUCKET_SIZE) - FIRST_BUCKET_BITS;
+    }
+
+    private static boolean isTokenChar(final char c)
+    {
+        return c < GOOD_CHAR_VALUES.length && GOOD_CHAR_VALUES[c] > -1;
+    }
+
+    /**
+     * The position of the literal at {@code index} within its bucket.
+     */
+    private static int offset(final int index)
+    {
+        final int i = index + FIRST_BUCKET_SIZE;
+
+        return i - Integer.highestOneBit(i);
+    }
+
+    private static String randomString(final Random rnd, final int length)
+    {
+        final StringBuilder sb = new StringBuilder();
+        final int CHAR_MAX = GOOD_CHARS.length();
+
+        for (int i = 0; i < length; i++)
+        {
+            sb.append(GOOD_CHARS.charAt(rnd.nextInt(CHAR_MAX)));
+        }
+
+        return sb.toString();
     }
 
     public String decode(final String coded)
     {
-        return unprotectMap.get(coded);
+        final int index = coded.length() == NUMOFCHARS ? indexOf(coded, 0) : -1;
+
+        return index > -1 ? literal(index) : null;
+    }
+
+    /**
+     * Replace every token in the text with the literal it protects, in a
+     * single scan of the text.
+     * <p>
+     * Only a run of at least {@value #NUMOFCHARS} letters and digits, the
+     * shape matched by {@link #FIND_ENCODED}, can hold a token. Each such
+     * window is checked as it is passed, so the cost depends on the length
+     * of the text, not on the number of tokens handed out.
+     * </p>
+     *
+     * @param text   to decode.
+     * @param output where the decoded text is appended.
+     *
+     * @return {@code true} if any tokens were found.
+     */
+    public boolean decodeAll(final CharSequence text, final StringBuilder output)
+    {
+        final int length = text.length();
+        int copied = 0;
+        int run = 0;
+
+        for (int i = 0; i < length; i++)
+        {
+            if (!isTokenChar(text.charAt(i)))
+            {
+                run = 0;
+            } else if (++run >= NUMOFCHARS)
+            {
+                final int start = i + 1 - NUMOFCHARS;
+                final int index = indexOf(text, start);
+                final String literal = index > -1 ? literal(index) : null;
+
+                if (literal != null)
+                {
+                    output.append(text, copied, start).append(literal);
+                    copied = i + 1;
+                    run = 0;
+                }
+            }
+        }
+
+        output.append(text, copied, length);
+
+        return copied > 0;
     }
 
     public String encode(final String literal)
     {
         final String encoded = protectMap.get(literal);
 
-        return encoded == null ? getNewEncodedAtomically(literal) : encoded;
+        return encoded == null ? protectMap.computeIfAbsent(literal, this::addToken) : encoded;
     }
 
     public Collection<String> getAllEncodedTokens()
     {
-        return Collections.unmodifiableSet(unprotectMap.keySet());
+        return Collections.unmodifiableCollection(new AbstractCollection<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                final int size = size();
+
+                return new Iterator<String>()
+                {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return index < size;
+                    }
+
+                    @Override
+                    public String next()
+                    {
+                        if (!hasNext())
+                        {
+                            throw new NoSuchElementException();
+                        }
+
+                        return token(index++);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return count.get();
+            }
+        });
     }
 
     @Override
@@ -105,31 +275,78 @@ public class CharacterProtector
 
     private String addToken(final String literal)
     {
-        final String encoded = longRandomString();
+        final int index = count.getAndIncrement();
+        final int bucket = bucket(index);
+        AtomicReferenceArray<String> literals = buckets.get(bucket);
+
+        if (literals == null)
+        {
+            buckets.compareAndSet(bucket, null, new AtomicReferenceArray<>(FIRST_BUCKET_SIZE << bucket));
+            literals = buckets.get(bucket);
+        }
+
+        literals.set(offset(index), literal);
+
+        return token(index);
+    }
+
+    /**
+     * Read the index from the token starting at {@code start}.
+     *
+     * @return the index, or -1 if this is not one of our tokens.
+     */
+    private int indexOf(final CharSequence text, final int start)
+    {
+        int index = -1;
 
-        protectMap.put(literal, encoded);
-        unprotectMap.put(encoded, literal);
+        if (text.charAt(start) == prefix.charAt(0))
+        {
+            boolean matches = true;
+
+            for (int i = 1; matches && i < PREFIX_CHARS; i++)
+            {
+                matches = text.charAt(start + i) == prefix.charAt(i);
+            }
+
+            if (matches)
+            {
+                long value = 0;
+
+                for (int i = start + PREFIX_CHARS; value > -1 && i < start + NUMOFCHARS; i++)
+                {
+                    final char c = text.charAt(i);
+                    value = isTokenChar(c) ? value * GOOD_CHARS.length() + GOOD_CHAR_VALUES[c] : -1;
+                }
+
+                index = value < count.get() ? (int) value : -1;
+            }
+        }
 
-        return encoded;
+        return index;
     }
 
-    private synchronized String getNewEncodedAtomically(final String literal)
+    /**
+     * The literal at {@code index}, or {@code null} if it is still being
+     * added.
+     */
+    private String literal(final int index)
     {
-        String encoded = protectMap.get(literal);
+        final AtomicReferenceArray<String> literals = buckets.get(bucket(index));
 
-        return encoded == null ? addToken(literal) : encoded;
+        return literals != null ? literals.get(offset(index)) : null;
     }
 
-    private String longRandomString()
+    private String token(final int index)
     {
-        StringBuilder sb = new StringBuilder();
-        final int CHAR_MAX = GOOD_CHARS.length();
+        final char[] chars = new char[INDEX_CHARS];
+        int value = index;
 
-        for (int i = 0; i < NUMOFCHARS; i++)
+        for (int i = INDEX_CHARS - 1; i >= 0; i--)
         {
-            sb.append(GOOD_CHARS.charAt(rnd.nextInt(CHAR_MAX)));
+            chars[i] = GOOD_CHARS.charAt(value % GOOD_CHARS.length());
+            value /= GOOD_CHARS.length();
         }
 
-        return sb.toString();
+        return prefix + new String(chars);
     }
 }
@@ -38,6 +38,7 @@
 package com.bewsoftware.mdj.core.utils;
 
 import com.bewsoftware.annotations.jcip.Immutable;
+import java.util.Objects;
 
 /**
  * Used to store the link definitions.
@@ -91,6 +92,21 @@ public class LinkDefinition
         this.title = title;
     }
 
+    @Override
+    public boolean equals(final Object obj)
+    {
+        return obj instanceof LinkDefinition other
+                && Objects.equals(classes, other.classes)
+                && Objects.equals(url, other.url)
+                && Objects.equals(title, other.title);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(classes, url, title);
+    }
+
     @Override
     public String toString()
     {
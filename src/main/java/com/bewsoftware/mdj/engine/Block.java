@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+import com.bewsoftware.annotations.jcip.Immutable;
+
+/**
+ * A top-level block of a Markdown document, as found by the
+ * {@link BlockParser}.
+ * <p>
+ * The text starts with the line ending, and any blank lines, that come
+ * before the block in the document. This gives the plugins the same view of
+ * the start of the block as they would have had of the whole document.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+@Immutable
+public class Block
+{
+    /**
+     * The kind of block.
+     */
+    public final BlockKind kind;
+
+    /**
+     * The Markdown text of the block.
+     */
+    public final String text;
+
+    /**
+     * Instantiate the class.
+     *
+     * @param kind The kind of block.
+     * @param text The Markdown text of the block.
+     */
+    public Block(final BlockKind kind, final String text)
+    {
+        this.kind = kind;
+        this.text = text;
+    }
+
+    @Override
+    public String toString()
+    {
+        return kind + ": " + text;
+    }
+}
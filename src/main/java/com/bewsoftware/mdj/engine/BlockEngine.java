@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.cleanupMarkdownText;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.hashHTMLBlocks;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.stripLinkDefinitions;
+
+/**
+ * Converts Markdown to HTML by splitting the document into its top-level
+ * blocks, and running the plugins over each block on its own.
+ * <p>
+ * This is a block-splitting engine, not a parser: it builds no tree of
+ * nodes, and it renders nothing itself. The whole-document steps are the
+ * same as for the {@link Engine#PIPELINE PIPELINE}: cleaning up the text,
+ * protecting any raw HTML blocks, and stripping out the link definitions.
+ * After that, the {@link BlockParser} makes a single pass over the lines of
+ * the document, to split it into a flat list of blocks. Each block is then
+ * run through the same block gamut as the pipeline.
+ * <p>
+ * The gain comes from running the regular expressions of the plugins over
+ * each small block, rather than over the whole document. The output is the
+ * same as that of the pipeline. If any raw HTML block tag has survived
+ * {@code HashHTMLBlocks}, the part of the document that it might yet be
+ * matched within is a single block.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class BlockEngine
+{
+    private BlockEngine()
+    {
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML.
+     *
+     * @param markdown text in markdown format
+     *
+     * @return HTML block converted from the markdown text passed in.
+     */
+    public static String convert(final String markdown)
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        try
+        {
+            convert(markdown, sb);
+        } catch (IOException ex)
+        {
+            // StringBuilder does not throw IOException.
+            throw new UncheckedIOException(ex);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Perform the conversion from Markdown to HTML, writing each finished
+     * block to {@code output} as soon as it is ready.
+     *
+     * @param markdown text in markdown format
+     * @param output   where the HTML is to be written
+     *
+     * @throws IOException if {@code output} throws one.
+     */
+    public static void convert(final CharSequence markdown, final Appendable output) throws IOException
+    {
+        if (markdown != null && !markdown.chars().allMatch(Character::isWhitespace))
+        {
+            final ConversionContext context = new ConversionContext();
+            final TextEditor text = new TextEditor(markdown);
+
+            cleanupMarkdownText(context, text);
+            hashHTMLBlocks(context, text);
+            stripLinkDefinitions(context, text);
+            HtmlRenderer.render(context, BlockParser.parse(text.toString()), output);
+        } else
+        {
+            output.append("\n");
+        }
+    }
+}
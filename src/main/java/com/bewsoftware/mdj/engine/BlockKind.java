@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+/**
+ * The kinds of top-level block recognised by the {@link BlockParser}.
+ * <p>
+ * The kind decides where a block may end. Every kind is rendered the same
+ * way, by running it through the block gamut.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public enum BlockKind
+{
+    /**
+     * A block quote, with or without a citation link.
+     */
+    BLOCK_QUOTE,
+    /**
+     * An indented code block.
+     */
+    CODE_BLOCK,
+    /**
+     * A fenced code block: {@code ```} or {@code ~~~}.
+     */
+    FENCED_CODE_BLOCK,
+    /**
+     * An atx-style header: {@code # Header}.
+     */
+    HEADER,
+    /**
+     * A horizontal rule: {@code ---}, {@code ***}, or {@code ===}.
+     */
+    HORIZONTAL_RULE,
+    /**
+     * An ordered, or unordered, list, including any leading
+     * {@code [#id][@class]} line.
+     */
+    LIST,
+    /**
+     * A run of blocks that must be processed together, such as a paragraph
+     * followed directly by a list.
+     */
+    MIXED,
+    /**
+     * A plain paragraph, or a protected block of HTML.
+     * <p>
+     * Any {@code [#id]} and {@code [@class]} are handled when rendered.
+     */
+    PARAGRAPH,
+    /**
+     * A table, including any caption line.
+     */
+    TABLE
+}
@@ -0,0 +1,612 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.bewsoftware.mdj.core.plugins.utils.Constants.LANG_IDENTIFIER;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.compile;
+
+/**
+ * Splits a Markdown document into its top-level blocks, in a single pass
+ * over its lines.
+ * <p>
+ * The text must already have been through {@code CleanupMarkdownText},
+ * {@code HashHTMLBlocks}, and {@code StripLinkDefinitions}.
+ * <p>
+ * A new block is only started at a line that follows a blank line, and that
+ * cannot continue whatever came before it: that is, a line that is not
+ * indented, is not quoted, and is not a list item. Fenced code blocks are
+ * never split. This keeps every match made by the block plugins within a
+ * single block, so that each block can be rendered on its own.
+ * <p>
+ * If a raw HTML block tag, or comment, has survived {@code HashHTMLBlocks},
+ * it may yet be matched to a tag generated later. An opening tag may be
+ * matched to a closing tag anywhere after it, and a closing tag to an
+ * opening tag anywhere before it. So the blocks from the first such tag
+ * that could be matched, to the last, are joined into a single
+ * {@link BlockKind#MIXED MIXED} block.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class BlockParser
+{
+    private static final String BACKTICK_FENCE = "```";
+
+    private static final int CODE_INDENT = 4;
+
+    private static final Pattern HORIZONTAL_RULE = compile(
+            "^[ ]{0,3}(?:(?:[*][ ]*){3,}|(?:[-][ ]*){3,}|(?:[=][ ]*){3,})$");
+
+    private static final Pattern RAW_HTML_BLOCK = compile("^[ ]{0,3}<(?:!|/?(?:"
+            + "head|p|div|h[1-6]|blockquote|pre|table|dl|ol|ul|script|noscript|form"
+            + "|fieldset|iframe|math|ins|del|hr)\\b)", CASE_INSENSITIVE);
+
+    private static final String TILDE_FENCE = "~~~";
+
+    private final List<Block> blocks;
+
+    private int blockStart;
+
+    /**
+     * The start, and end, of each of the {@link #blocks}.
+     */
+    private final List<int[]> bounds;
+
+    private int fenceEnd;
+
+    private int firstLineEnd;
+
+    private int firstLineStart;
+
+    private boolean hasBlankLines;
+
+    private boolean hasFence;
+
+    private boolean inList;
+
+    private boolean indented;
+
+    private int lastLineEnd;
+
+    private boolean noBacktickClose;
+
+    private boolean noTildeClose;
+
+    private boolean plain;
+
+    /**
+     * The part of the text within which a surviving raw HTML tag might yet
+     * be matched, or -1 if there is none.
+     */
+    private int rawHtmlEnd;
+
+    private int rawHtmlStart;
+
+    private int secondLineStart;
+
+    private final String text;
+
+    private BlockParser(final String text)
+    {
+        this.text = text;
+        this.blocks = new ArrayList<>();
+        this.blockStart = 0;
+        this.bounds = new ArrayList<>();
+        this.firstLineStart = -1;
+        this.rawHtmlEnd = -1;
+        this.rawHtmlStart = text.length();
+    }
+
+    /**
+     * Split the text into its top-level blocks.
+     *
+     * @param text to parse.
+     *
+     * @return the blocks, in document order.
+     */
+    public static List<Block> parse(final String text)
+    {
+        return new BlockParser(text).parse();
+    }
+
+    /**
+     * Can this line start a new block?
+     * <p>
+     * It must not be able to continue a list, code block, or block quote.
+     * Nor may it be able to underline the blank line before it, as a
+     * setext-style header.
+     */
+    private static boolean canStartBlock(final String line)
+    {
+        final char c = line.charAt(0);
+
+        return c != ' ' && c != '>' && c != '=' && c != '-' && !isListMarker(line);
+    }
+
+    /**
+     * Can this indented line start a new code block?
+     * <p>
+     * Only if it can't be a continuation of a code block, or of a block
+     * quote. Also, whether a {@code lang:} line is taken as the class of the
+     * code block depends on how many newlines come before it, which in turn
+     * depends on how the block before it was processed.
+     */
+    private static boolean canStartCodeBlock(final String line, final boolean indented)
+    {
+        final int indent = leadingSpaces(line, 0, line.length());
+
+        return !indented
+                && indent >= CODE_INDENT
+                && indent < line.length()
+                && line.charAt(indent) != '>'
+                && !line.startsWith(LANG_IDENTIFIER, indent);
+    }
+
+    /**
+     * Does a line, after {@code from}, start with the closing tag?
+     */
+    private static boolean hasClosingLine(final String text, final String name, final int from)
+    {
+        final int length = name.length();
+        boolean rtn = false;
+
+        for (int i = text.indexOf("\n</", from); i > -1 && !rtn; i = text.indexOf("\n</", i + 1))
+        {
+            rtn = text.regionMatches(true, i + 3, name, 0, length)
+                    && text.startsWith(">", i + 3 + length);
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Has a raw HTML block tag, or comment, survived {@code HashHTMLBlocks}?
+     *
+     * @param text to search.
+     *
+     * @return {@code true} if a line of the text starts with one.
+     */
+    static boolean hasRawHtml(final String text)
+    {
+        boolean rtn = false;
+
+        for (int i = text.indexOf('<'); i > -1 && !rtn; i = text.indexOf('<', i + 1))
+        {
+            int lineStart = i;
+
+            while (lineStart > 0 && text.charAt(lineStart - 1) == ' ')
+            {
+                lineStart--;
+            }
+
+            rtn = (lineStart == 0 || text.charAt(lineStart - 1) == '\n')
+                    && RAW_HTML_BLOCK.matcher(text).region(lineStart, text.length()).lookingAt();
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Might {@code HashHTMLBlocks} match a raw HTML block tag to a closing
+     * tag beyond the end of the text?
+     * <p>
+     * It may, if a line starts with an opening tag, and no later line starts
+     * with its closing tag.
+     *
+     * @param text to search.
+     *
+     * @return {@code true} if it might.
+     */
+    static boolean hasUnclosedHtml(final String text)
+    {
+        boolean rtn = false;
+
+        for (int i = text.indexOf('<'); i > -1 && !rtn; i = text.indexOf('<', i + 1))
+        {
+            if ((i == 0 || text.charAt(i - 1) == '\n')
+                    && RAW_HTML_BLOCK.matcher(text).region(i, text.length()).lookingAt())
+            {
+                int nameEnd = i + 1;
+
+                while (nameEnd < text.length() && Character.isLetterOrDigit(text.charAt(nameEnd)))
+                {
+                    nameEnd++;
+                }
+
+                final String name = text.substring(i + 1, nameEnd);
+
+                rtn = !name.isEmpty()
+                        && !name.equalsIgnoreCase("hr")
+                        && !hasClosingLine(text, name, nameEnd);
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Could this line be part of an indented code block?
+     * <p>
+     * 'CodeBlocks' allows each line to be prefixed by {@code "> "}.
+     */
+    private static boolean isCodeLine(final String line)
+    {
+        int i = 0;
+
+        while (line.startsWith("> ", i))
+        {
+            i += 2;
+        }
+
+        return leadingSpaces(line, i, line.length()) >= CODE_INDENT;
+    }
+
+    private static boolean isListMarker(final String line)
+    {
+        final int start = leadingSpaces(line, 0, line.length());
+        int i = start;
+
+        if (i < line.length() && "*+-".indexOf(line.charAt(i)) > -1)
+        {
+            i++;
+        } else
+        {
+            while (i < line.length() && Character.isDigit(line.charAt(i)))
+            {
+                i++;
+            }
+
+            if (i == start || i == line.length() || line.charAt(i) != '.')
+            {
+                return false;
+            }
+
+            i++;
+        }
+
+        return i < line.length() && line.charAt(i) == ' ';
+    }
+
+    /**
+     * Could this line be part of a plain paragraph?
+     * <p>
+     * This is deliberately cautious. Anything that might be seen by one of
+     * the block plugins makes the block {@link BlockKind#MIXED MIXED}.
+     */
+    private static boolean isPlainLine(final String line, final boolean first)
+    {
+        final int indent = leadingSpaces(line, 0, line.length());
+        // A line of nothing but spaces is left by a join in 'CleanupMarkdownText'.
+        final char c = indent < line.length() ? line.charAt(indent) : ' ';
+        final boolean rtn;
+
+        if (first && indent >= CODE_INDENT)
+        {
+            rtn = false;
+        } else if ("#>|".indexOf(c) > -1
+                || line.startsWith(BACKTICK_FENCE)
+                || line.startsWith(TILDE_FENCE))
+        {
+            rtn = false;
+        } else if ("*+-=".indexOf(c) > -1 || Character.isDigit(c))
+        {
+            rtn = !isListMarker(line) && !HORIZONTAL_RULE.matcher(line).find();
+        } else
+        {
+            rtn = true;
+        }
+
+        // 'Tables' protects escaped pipes throughout the text.
+        return rtn && !line.contains("\\|");
+    }
+
+    private static int leadingSpaces(final CharSequence line, final int start, final int end)
+    {
+        int i = start;
+
+        while (i < end && line.charAt(i) == ' ')
+        {
+            i++;
+        }
+
+        return i - start;
+    }
+
+    private void addBlock(final int end)
+    {
+        if (firstLineStart > -1)
+        {
+            blocks.add(new Block(kind(), text.substring(blockStart, end)));
+            bounds.add(new int[]
+            {
+                blockStart, end
+            });
+        }
+    }
+
+    /**
+     * Note the part of the text within which a surviving raw HTML tag
+     * might yet be matched.
+     */
+    private void addRawHtml(final String line, final int start, final int end)
+    {
+        if (line.charAt(leadingSpaces(line, 0, line.length()) + 1) == '/')
+        {
+            rawHtmlStart = 0;
+            rawHtmlEnd = Math.max(rawHtmlEnd, end);
+        } else
+        {
+            rawHtmlStart = Math.min(rawHtmlStart, start);
+            rawHtmlEnd = text.length();
+        }
+    }
+
+    /**
+     * Find the end of the closing fence.
+     *
+     * @return the index of the line ending of the closing fence, or -1 if
+     *         there isn't one.
+     */
+    private int findClosingFence(final int from, final String fence)
+    {
+        final String target = "\n" + fence;
+        int i = text.indexOf(target, from);
+
+        while (i > -1)
+        {
+            int j = i + target.length();
+
+            while (j < text.length() && text.charAt(j) == ' ')
+            {
+                j++;
+            }
+
+            if (j < text.length() && text.charAt(j) == '\n')
+            {
+                return j;
+            }
+
+            i = text.indexOf(target, i + 1);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Join the blocks within which a surviving raw HTML tag might yet be
+     * matched.
+     */
+    private void joinRawHtmlBlocks()
+    {
+        int first = 0;
+
+        while (bounds.get(first)[1] <= rawHtmlStart)
+        {
+            first++;
+        }
+
+        int last = first;
+
+        while (last + 1 < bounds.size() && bounds.get(last + 1)[0] < rawHtmlEnd)
+        {
+            last++;
+        }
+
+        final Block joined = new Block(BlockKind.MIXED,
+                text.substring(bounds.get(first)[0], bounds.get(last)[1]));
+
+        blocks.subList(first, last + 1).clear();
+        blocks.add(first, joined);
+    }
+
+    private BlockKind kind()
+    {
+        final String first = text.substring(firstLineStart, firstLineEnd);
+        final String second = secondLineStart > -1
+                ? text.substring(secondLineStart, lineEnd(secondLineStart))
+                : "";
+        final BlockKind rtn;
+
+        if (plain && !hasBlankLines)
+        {
+            rtn = BlockKind.PARAGRAPH;
+        } else if (first.startsWith(BACKTICK_FENCE) || first.startsWith(TILDE_FENCE))
+        {
+            rtn = hasFence && fenceEnd == lastLineEnd && secondLineStart == -1
+                    ? BlockKind.FENCED_CODE_BLOCK
+                    : BlockKind.MIXED;
+        } else if (first.startsWith("#") && secondLineStart == -1)
+        {
+            rtn = BlockKind.HEADER;
+        } else if (leadingSpaces(first, 0, first.length()) >= CODE_INDENT)
+        {
+            rtn = BlockKind.CODE_BLOCK;
+        } else if (first.startsWith(">") || (first.startsWith("[(") && second.startsWith(">")))
+        {
+            rtn = BlockKind.BLOCK_QUOTE;
+        } else if (isListMarker(first) || (first.startsWith("[") && isListMarker(second)))
+        {
+            rtn = BlockKind.LIST;
+        } else if (first.startsWith("|") || second.startsWith("|"))
+        {
+            rtn = BlockKind.TABLE;
+        } else if (HORIZONTAL_RULE.matcher(first).find() && secondLineStart == -1)
+        {
+            rtn = BlockKind.HORIZONTAL_RULE;
+        } else
+        {
+            rtn = BlockKind.MIXED;
+        }
+
+        return rtn;
+    }
+
+    private int lineEnd(final int start)
+    {
+        final int eol = text.indexOf('\n', start);
+
+        return eol > -1 ? eol : text.length();
+    }
+
+    private List<Block> parse()
+    {
+        final int length = text.length();
+        boolean previousBlank = false;
+        int pos = 0;
+
+        while (pos < length)
+        {
+            int eol = lineEnd(pos);
+
+            if (eol == pos)
+            {
+                previousBlank = true;
+            } else
+            {
+                final String line = text.substring(pos, eol);
+
+                if (RAW_HTML_BLOCK.matcher(line).find())
+                {
+                    addRawHtml(line, pos, eol);
+                }
+
+                if (previousBlank && firstLineStart > -1 && !inList
+                        && (canStartBlock(line) || canStartCodeBlock(line, indented)))
+                {
+                    addBlock(lastLineEnd + 1);
+                    startBlock(lastLineEnd);
+                } else if (previousBlank && firstLineStart > -1)
+                {
+                    hasBlankLines = true;
+                }
+
+                //
+                // A list swallows the blank lines that follow it. If it is
+                // not then protected by 'HashHTMLBlocks', its last paragraph
+                // is joined to the line that ended it. So that line must stay
+                // in the same block as the list.
+                //
+                if (isListMarker(line))
+                {
+                    inList = true;
+                } else if (previousBlank && line.charAt(0) != ' ')
+                {
+                    inList = false;
+                }
+
+                eol = readLine(line, pos, eol);
+                previousBlank = false;
+            }
+
+            pos = eol + 1;
+        }
+
+        addBlock(length);
+
+        if (rawHtmlEnd > -1)
+        {
+            joinRawHtmlBlocks();
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Add a non-blank line to the current block.
+     *
+     * @return the end of the line, or of the fenced code block it opens.
+     */
+    private int readLine(final String line, final int start, final int end)
+    {
+        int rtn = end;
+
+        if (firstLineStart == -1)
+        {
+            firstLineStart = start;
+            firstLineEnd = end;
+            secondLineStart = -1;
+            plain = true;
+            hasBlankLines = false;
+            hasFence = false;
+            indented = false;
+        } else if (secondLineStart == -1)
+        {
+            secondLineStart = start;
+        }
+
+        plain = plain && isPlainLine(line, start == firstLineStart);
+        indented = indented || isCodeLine(line);
+
+        final String fence = text.startsWith(BACKTICK_FENCE, start) ? BACKTICK_FENCE
+                : text.startsWith(TILDE_FENCE, start) ? TILDE_FENCE
+                : null;
+
+        if (fence != null)
+        {
+            final boolean backtick = fence.equals(BACKTICK_FENCE);
+            final int close = (backtick ? noBacktickClose : noTildeClose) ? -1
+                    : findClosingFence(end, fence);
+
+            if (close > -1)
+            {
+                hasFence = true;
+                fenceEnd = close;
+                rtn = close;
+            } else if (backtick)
+            {
+                noBacktickClose = true;
+            } else
+            {
+                noTildeClose = true;
+            }
+        }
+
+        lastLineEnd = rtn;
+
+        return rtn;
+    }
+
+    private void startBlock(final int start)
+    {
+        blockStart = start;
+        firstLineStart = -1;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import java.io.IOException;
+import java.util.List;
+
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.runBlockGamut;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.unEscapeSpecialChars;
+
+/**
+ * Runs the plugins over the blocks found by the {@link BlockParser}, one
+ * block at a time, and joins up the HTML.
+ * <p>
+ * Every kind of block is run through the block gamut of the conversion, as
+ * it would have been as part of the whole document.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+final class HtmlRenderer
+{
+    /**
+     * {@code FormParagraphs} produces this when a code block is at the very
+     * start of its text.
+     */
+    private static final String EMPTY_PARAGRAPH = "<p></p>\n\n";
+
+    private HtmlRenderer()
+    {
+    }
+
+    /**
+     * Render the blocks, writing each one out as soon as it is finished.
+     *
+     * @param context the current conversion.
+     * @param blocks  to render.
+     * @param output  where the HTML is to be written.
+     *
+     * @throws IOException if {@code output} throws one.
+     */
+    static void render(
+            final ConversionContext context,
+            final List<Block> blocks,
+            final Appendable output
+    ) throws IOException
+    {
+        boolean first = true;
+
+        for (Block block : blocks)
+        {
+            first = write(renderBlock(context, block), first, output);
+        }
+
+        output.append("\n");
+    }
+
+    /**
+     * Render a single block.
+     *
+     * @param context the current conversion.
+     * @param block   to render.
+     *
+     * @return the HTML, with the special characters still escaped.
+     */
+    static TextEditor render(final ConversionContext context, final Block block)
+    {
+        return runBlockGamut(context, new TextEditor(block.text));
+    }
+
+    /**
+     * Render a single block, and restore its special characters.
+     *
+     * @param context the current conversion.
+     * @param block   to render.
+     *
+     * @return the finished block.
+     */
+    static RenderedBlock renderBlock(final ConversionContext context, final Block block)
+    {
+        final TextEditor html = render(context, block);
+        final boolean emptyParagraph = html.toString().startsWith(EMPTY_PARAGRAPH);
+
+        return new RenderedBlock(unEscapeSpecialChars(context, html).toString(), emptyParagraph);
+    }
+
+    /**
+     * Write out a finished block, separating it from any before it.
+     *
+     * @param block  to write.
+     * @param first  set if nothing has been written yet.
+     * @param output where the HTML is to be written.
+     *
+     * @return {@code true} if nothing has been written yet.
+     *
+     * @throws IOException if {@code output} throws one.
+     */
+    static boolean write(final RenderedBlock block, final boolean first, final Appendable output)
+            throws IOException
+    {
+        boolean rtn = first;
+
+        if (!block.html.isEmpty())
+        {
+            if (first)
+            {
+                output.append(block.html);
+            } else
+            {
+                //
+                // Within the whole document, this block would not have
+                // been at the start of the text.
+                //
+                output.append("\n\n").append(block.html,
+                        block.emptyParagraph ? EMPTY_PARAGRAPH.length() : 0,
+                        block.html.length());
+            }
+
+            rtn = false;
+        }
+
+        return rtn;
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.engine;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.LinkDefinition;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.cleanupMarkdownText;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.hashHTMLBlocks;
+import static com.bewsoftware.mdj.core.plugins.PluginInterlink.stripLinkDefinitions;
+
+/**
+ * A Markdown document that is converted again each time it changes, such as
+ * in the preview pane of an editor.
+ * <p>
+ * The document is split into the same top-level blocks as used by the
+ * {@link Engine#BLOCKS BLOCKS} engine. The HTML of each block is
+ * kept, keyed by the block's text, and only the blocks that are new since
+ * the last {@link #update(String) update()} are rendered. A block is also
+ * rendered again if a link definition it might refer to has been added,
+ * changed, or removed.
+ * <p>
+ * The whole-document steps, cleaning up the text, protecting any raw HTML
+ * blocks, and stripping out the link definitions, are run over each chunk
+ * of the text that starts after a blank line. The result for each chunk is
+ * kept, keyed by its text, so only the chunks that have changed are
+ * prepared again. However, if any raw HTML block tag survives, it may need
+ * to be matched across chunks, so the whole text is prepared, every time.
+ * <p>
+ * Only the splitting of the document into its blocks is still run over all
+ * of the text. It is a single pass over the lines, and cheap compared to
+ * the rest.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class IncrementalDocument
+{
+    /**
+     * The character protectors keep every token they have ever handed out.
+     * When they hold more than this, we start again with a new context.
+     */
+    private static final int MAX_TOKENS = 4096;
+
+    private final Map<String, RenderedBlock> blocks = new HashMap<>();
+
+    /**
+     * The prepared chunks, keyed by the text they were prepared from.
+     */
+    private Map<String, Chunk> chunks = new HashMap<>();
+
+    private ConversionContext context = new ConversionContext();
+
+    private String html = "\n";
+
+    private int preparedLength;
+
+    private int renderedCount;
+
+    /**
+     * Instantiate the class with an empty document.
+     */
+    public IncrementalDocument()
+    {
+    }
+
+    /**
+     * The HTML from the last {@link #update(String) update()}.
+     *
+     * @return the HTML.
+     */
+    public synchronized String getHtml()
+    {
+        return html;
+    }
+
+    /**
+     * The number of characters that had to be prepared by the last
+     * {@link #update(String) update()}.
+     *
+     * @return the number of characters.
+     */
+    public synchronized int getPreparedLength()
+    {
+        return preparedLength;
+    }
+
+    /**
+     * The number of blocks that had to be rendered by the last
+     * {@link #update(String) update()}.
+     *
+     * @return the number of blocks.
+     */
+    public synchronized int getRenderedCount()
+    {
+        return renderedCount;
+    }
+
+    /**
+     * Convert the new text of the document, only rendering the blocks that
+     * have changed.
+     *
+     * @param markdown the new text of the document, in markdown format.
+     *
+     * @return the HTML, the same as
+     *         {@link BlockEngine#convert(String) BlockEngine.convert()}
+     *         would produce.
+     */
+    public synchronized String update(final String markdown)
+    {
+        preparedLength = 0;
+        renderedCount = 0;
+
+        if (markdown == null || markdown.isBlank())
+        {
+            html = "\n";
+        } else
+        {
+            if (context.getCharProtector().getAllEncodedTokens().size()
+                    + context.getHtmlProtector().getAllEncodedTokens().size() > MAX_TOKENS)
+            {
+                context = new ConversionContext();
+                blocks.clear();
+                chunks.clear();
+            }
+
+            final Map<String, LinkDefinition> linkDefinitions = context.getLinkDefinitions();
+            final Map<String, LinkDefinition> oldLinkDefinitions = new TreeMap<>(linkDefinitions);
+            final String text = prepare(markdown);
+
+            forgetLinkReferences(oldLinkDefinitions, linkDefinitions);
+            html = render(BlockParser.parse(text));
+        }
+
+        return html;
+    }
+
+    /**
+     * Forget the blocks that might refer to a link definition that is not
+     * the same as before.
+     */
+    private void forgetLinkReferences(
+            final Map<String, LinkDefinition> oldLinkDefinitions,
+            final Map<String, LinkDefinition> linkDefinitions
+    )
+    {
+        final Map<String, LinkDefinition> changed = new TreeMap<>(oldLinkDefinitions);
+        changed.putAll(linkDefinitions);
+
+        changed.keySet().removeIf(id
+                -> Objects.equals(oldLinkDefinitions.get(id), linkDefinitions.get(id)));
+
+        if (!changed.isEmpty())
+        {
+            // A link id may be broken over lines, as 'Anchors' allows.
+            blocks.keySet().removeIf(block
+                    -> changed.keySet().stream()
+                            .anyMatch(block.replaceAll("[ ]?\\n", " ")::contains));
+        }
+    }
+
+    /**
+     * Might this line start a link definition?
+     */
+    private static boolean isLinkDefinition(final String markdown, final int start, final int last)
+    {
+        int i = start;
+
+        while (i < start + 3 && i < last && markdown.charAt(i) == ' ')
+        {
+            i++;
+        }
+
+        final int colon = markdown.indexOf("]:", i);
+
+        return markdown.charAt(i) == '[' && colon > i && colon < last;
+    }
+
+    /**
+     * Split the markdown into chunks, each starting at a line that follows a
+     * blank line.
+     * <p>
+     * A line that ends in a {@code '\\'} may be joined to the blank line
+     * after it, by {@code CleanupMarkdownText}. The URL of a link definition
+     * that has none on its own line may be found on the next line that is
+     * not blank, by {@code StripLinkDefinitions}. So no chunk starts after
+     * either of them.
+     */
+    private static List<String> split(final String markdown)
+    {
+        final List<String> rtn = new ArrayList<>();
+        final int length = markdown.length();
+        boolean blank = false;
+        boolean continued = false;
+        int chunkStart = 0;
+        int pos = 0;
+
+        while (pos < length)
+        {
+            int eol = pos;
+
+            while (eol < length && markdown.charAt(eol) != '\n' && markdown.charAt(eol) != '\r')
+            {
+                eol++;
+            }
+
+            int last = eol - 1;
+
+            while (last >= pos && (markdown.charAt(last) == ' ' || markdown.charAt(last) == '\t'))
+            {
+                last--;
+            }
+
+            if (last < pos)
+            {
+                blank = true;
+            } else
+            {
+                if (blank && !continued && pos > chunkStart)
+                {
+                    rtn.add(markdown.substring(chunkStart, pos));
+                    chunkStart = pos;
+                }
+
+                blank = false;
+                continued = markdown.charAt(last) == '\\' || isLinkDefinition(markdown, pos, last);
+            }
+
+            if (markdown.startsWith("\r\n", eol))
+            {
+                eol++;
+            }
+
+            pos = eol + 1;
+        }
+
+        rtn.add(markdown.substring(chunkStart));
+
+        return rtn;
+    }
+
+    /**
+     * Run the whole-document steps over the markdown, only preparing again
+     * the chunks that have changed.
+     *
+     * @return the prepared text, the same as it would be if it had all been
+     *         prepared at once.
+     */
+    private String prepare(final String markdown)
+    {
+        final List<String> keys = split(markdown);
+        final Map<String, Chunk> oldChunks = chunks;
+        final List<Chunk> parts = new ArrayList<>(keys.size());
+        boolean rawHtml = false;
+
+        chunks = new HashMap<>();
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            //
+            // Every chunk, but the first, follows a blank line. Preparing it
+            // after one gives it the same view of its start as it would have
+            // had of the whole document.
+            //
+            final String key = i == 0 ? keys.get(i) : "\n\n" + keys.get(i);
+            Chunk chunk = chunks.get(key);
+
+            if (chunk == null)
+            {
+                chunk = oldChunks.get(key);
+
+                if (chunk == null)
+                {
+                    chunk = prepareChunk(key);
+                }
+
+                chunks.put(key, chunk);
+            }
+
+            parts.add(chunk);
+            rawHtml = rawHtml || chunk.rawHtml;
+        }
+
+        final Map<String, LinkDefinition> linkDefinitions = context.getLinkDefinitions();
+        final String rtn;
+
+        if (rawHtml)
+        {
+            final TextEditor text = new TextEditor(markdown);
+
+            linkDefinitions.clear();
+            cleanupMarkdownText(context, text);
+            hashHTMLBlocks(context, text);
+            stripLinkDefinitions(context, text);
+            preparedLength += markdown.length();
+            rtn = text.toString();
+        } else
+        {
+            final StringBuilder sb = new StringBuilder(markdown.length() + 2);
+
+            linkDefinitions.clear();
+
+            for (int i = 0; i < parts.size(); i++)
+            {
+                final String text = parts.get(i).text;
+                final int start = i == 0 ? 0 : 2;
+                int end = text.length();
+
+                //
+                // 'CleanupMarkdownText' ends the text with two more newlines.
+                // Only the last chunk is the end of the document. They will
+                // be gone if a link definition at the end was stripped.
+                //
+                if (i < parts.size() - 1 && end - 2 >= start && text.endsWith("\n\n"))
+                {
+                    end -= 2;
+                }
+
+                sb.append(text, start, end);
+                linkDefinitions.putAll(parts.get(i).linkDefinitions);
+            }
+
+            rtn = sb.toString();
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Run the whole-document steps over a single chunk.
+     */
+    private Chunk prepareChunk(final String key)
+    {
+        final Map<String, LinkDefinition> linkDefinitions = context.getLinkDefinitions();
+        final TextEditor text = new TextEditor(key);
+
+        linkDefinitions.clear();
+        cleanupMarkdownText(context, text);
+
+        final boolean unclosedHtml = BlockParser.hasUnclosedHtml(text.toString());
+
+        hashHTMLBlocks(context, text);
+        stripLinkDefinitions(context, text);
+        preparedLength += key.length();
+
+        final String prepared = text.toString();
+
+        return new Chunk(prepared, Map.copyOf(linkDefinitions),
+                unclosedHtml || BlockParser.hasRawHtml(prepared));
+    }
+
+    private String render(final List<Block> parsed)
+    {
+        final Map<String, RenderedBlock> oldBlocks = new HashMap<>(blocks);
+        final StringBuilder sb = new StringBuilder();
+        boolean first = true;
+
+        blocks.clear();
+
+        try
+        {
+            for (Block block : parsed)
+            {
+                RenderedBlock rendered = oldBlocks.get(block.text);
+
+                if (rendered == null)
+                {
+                    rendered = HtmlRenderer.renderBlock(context, block);
+                    renderedCount++;
+                }
+
+                blocks.put(block.text, rendered);
+                first = HtmlRenderer.write(rendered, first, sb);
+            }
+        } catch (IOException ex)
+        {
+            // StringBuilder does not throw IOException.
+            throw new UncheckedIOException(ex);
+        }
+
+        return sb.append("\n").toString();
+    }
+
+    /**
+     * A chunk of the markdown, after the whole-document steps.
+     */
+    private static class Chunk
+    {
+        /**
+         * The link definitions stripped from the chunk.
+         */
+        private final Map<String, LinkDefinition> linkDefinitions;
+
+        /**
+         * Set if a raw HTML block tag has survived {@code HashHTMLBlocks},
+         * or might have been matched to one beyond the chunk.
+         */
+        private final boolean rawHtml;
+
+        /**
+         * The prepared text.
+         */
+        private final String text;
+
+        private Chunk(
+                final String text,
+                final Map<String, LinkDefinition> linkDefinitions,
+                final boolean rawHtml
+        )
+        {
+            this.text = text;
+            this.linkDefinitions = linkDefinitions;
+            this.rawHtml = rawHtml;
+        }
+    }
+}
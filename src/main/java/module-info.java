@@ -45,4 +45,5 @@ module bewsoftware.mdj {
     
     exports com.bewsoftware.mdj;
     exports com.bewsoftware.mdj.core;
+    exports com.bewsoftware.mdj.engine;
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.engine.Block;
+import com.bewsoftware.mdj.engine.BlockKind;
+import com.bewsoftware.mdj.engine.BlockParser;
+import com.bewsoftware.mdj.engine.Engine;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The {@link Engine#BLOCKS BLOCKS} engine must produce the same
+ * output as the {@link Engine#PIPELINE PIPELINE}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class BlockEngineTest
+{
+    /**
+     * Email addresses are obfuscated with a random mix of decimal and hex
+     * character references, so these are decoded before comparing.
+     */
+    private static final Pattern CHAR_REF = Pattern.compile("&#(?:x(?<hex>[0-9a-fA-F]+)|(?<dec>[0-9]+));");
+
+    private static final String DOCUMENT = ""
+            + "> quote\n"
+            + "\n"
+            + "# Header\n"
+            + "\n"
+            + "A paragraph.\n"
+            + "\n"
+            + "    code\n"
+            + "\n"
+            + "***\n"
+            + "\n"
+            + "```\n"
+            + "fenced\n"
+            + "\n"
+            + "code\n"
+            + "```\n"
+            + "\n"
+            + "| a | b |\n"
+            + "|---|---|\n"
+            + "| 1 | 2 |\n"
+            + "\n"
+            + "Last paragraph.\n"
+            + "\n"
+            + "- one\n"
+            + "- two\n";
+
+    public static Collection<String[]> markdownTests()
+    {
+        return MarkdownTestTester.markdownTests();
+    }
+
+    private static String decodeCharRefs(final String text)
+    {
+        return CHAR_REF.matcher(text).replaceAll(m ->
+        {
+            final int c = m.group("hex") != null
+                    ? Integer.parseInt(m.group("hex"), 16)
+                    : Integer.parseInt(m.group("dec"));
+
+            return c == '\\' || c == '$' ? "\\" + (char) c : String.valueOf((char) c);
+        });
+    }
+
+    @Test
+    public void testAppendable() throws IOException
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        MarkdownProcessor.convert(DOCUMENT, sb, Engine.BLOCKS);
+        assertEquals(MarkdownProcessor.convert(DOCUMENT), sb.toString());
+    }
+
+    @Test
+    public void testBlankJoinedLine()
+    {
+        // 'CleanupMarkdownText' joins these into a line of nothing but spaces.
+        final String markdown = "Text\n \\\n\n    code \\\n\n";
+
+        assertEquals(MarkdownProcessor.convert(markdown),
+                MarkdownProcessor.convert(markdown, Engine.BLOCKS));
+    }
+
+    @Test
+    public void testBlockKinds()
+    {
+        final List<BlockKind> kinds = BlockParser.parse(DOCUMENT).stream()
+                .map((Block block) -> block.kind)
+                .toList();
+
+        assertEquals(List.of(
+                BlockKind.BLOCK_QUOTE,
+                BlockKind.HEADER,
+                BlockKind.PARAGRAPH,
+                BlockKind.CODE_BLOCK,
+                BlockKind.HORIZONTAL_RULE,
+                BlockKind.FENCED_CODE_BLOCK,
+                BlockKind.TABLE,
+                BlockKind.MIXED
+        ), kinds);
+    }
+
+    @Test
+    public void testBlocks()
+    {
+        assertEquals(MarkdownProcessor.convert(DOCUMENT),
+                MarkdownProcessor.convert(DOCUMENT, Engine.BLOCKS));
+    }
+
+    @Test
+    public void testRawHtml()
+    {
+        final String opening = "# Header\n\nA paragraph.\n\n<div>\nstray\n\nLast *one*.\n";
+        final String closing = "A paragraph.\n\n</div>\n\n# Header\n";
+
+        assertEquals(List.of(BlockKind.HEADER, BlockKind.PARAGRAPH, BlockKind.MIXED),
+                BlockParser.parse(opening).stream().map((Block block) -> block.kind).toList());
+        assertEquals(List.of(BlockKind.MIXED, BlockKind.HEADER),
+                BlockParser.parse(closing).stream().map((Block block) -> block.kind).toList());
+
+        for (final String markdown : List.of(opening, closing))
+        {
+            assertEquals(MarkdownProcessor.convert(markdown),
+                    MarkdownProcessor.convert(markdown, Engine.BLOCKS));
+        }
+    }
+
+    @ParameterizedTest(name = "{index}: {arguments}")
+    @MethodSource("markdownTests")
+    public void testSameAsPipeline(final String dir, final String test) throws IOException
+    {
+        final String markdown = slurp(dir + File.separator + test + ".text");
+
+        assertEquals(
+                decodeCharRefs(MarkdownProcessor.convert(markdown)),
+                decodeCharRefs(MarkdownProcessor.convert(markdown, Engine.BLOCKS)),
+                test);
+    }
+
+    /**
+     * Read contents of file into a String.
+     *
+     * @param fileName File to read.
+     *
+     * @return String containing contents of file.
+     *
+     * @throws IOException if any.
+     */
+    private String slurp(final String fileName) throws IOException
+    {
+        final URL fileUrl = this.getClass().getResource(fileName);
+        final File file = new File(URLDecoder.decode(fileUrl.getFile(), "UTF-8"));
+
+        final StringBuilder sb;
+
+        try (BufferedReader in = new BufferedReader(new FileReader(file)))
+        {
+            sb = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                sb.append(line).append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+}
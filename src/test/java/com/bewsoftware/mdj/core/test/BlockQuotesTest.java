@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.BlockQuotes;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import org.junit.jupiter.api.Test;
+
+import static com.bewsoftware.mdj.core.plugins.utils.ConversionContext.DEFAULT_MAX_QUOTE_LEVEL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The block-quotes built by {@link BlockQuotes}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class BlockQuotesTest
+{
+    /**
+     * Run just the plugin, as the whole conversion would also spend its time
+     * on everything else.
+     */
+    private static String blockQuotes(final ConversionContext context, final String text)
+    {
+        return new BlockQuotes().execute(context, new TextEditor(text)).toString();
+    }
+
+    private static long count(final String html, final String tag)
+    {
+        return html.split(tag, -1).length - 1;
+    }
+
+    @Test
+    public void testBlockQuote()
+    {
+        assertEquals("<blockquote>\n  <p>A <em>quote</em>\n  on two lines.</p>\n</blockquote>\n",
+                MarkdownProcessor.convert("> A *quote*\n> on two lines.\n"));
+    }
+
+    @Test
+    public void testCitation()
+    {
+        assertEquals("<div class=\"blockquote\">\n  <p>Quoted</p>\n"
+                + "  <a href=\"#cite01\" class=\"cite\">(Smith, 2021)</a>\n</div>\n",
+                MarkdownProcessor.convert("[(Smith, 2021)](#cite01)\n> Quoted\n"));
+    }
+
+    @Test
+    public void testDeeplyNestedQuotes()
+    {
+        final String html = MarkdownProcessor.convert("> ".repeat(1000) + "x\n");
+
+        assertEquals(DEFAULT_MAX_QUOTE_LEVEL, count(html, "<blockquote>"));
+        assertEquals(DEFAULT_MAX_QUOTE_LEVEL, count(html, "</blockquote>"));
+    }
+
+    @Test
+    public void testFirstLevelPastMax()
+    {
+        final StringBuilder expected = new StringBuilder();
+
+        for (int i = 0; i < DEFAULT_MAX_QUOTE_LEVEL; i++)
+        {
+            expected.append("  ".repeat(i)).append("<blockquote>\n");
+        }
+
+        // The one '>' past the maximum is kept, as the text of the paragraph.
+        expected.append("  ".repeat(DEFAULT_MAX_QUOTE_LEVEL)).append("<p>> x</p>\n");
+
+        for (int i = DEFAULT_MAX_QUOTE_LEVEL - 1; i >= 0; i--)
+        {
+            expected.append("  ".repeat(i)).append("</blockquote>\n");
+        }
+
+        assertEquals(expected.toString(),
+                MarkdownProcessor.convert("> ".repeat(DEFAULT_MAX_QUOTE_LEVEL + 1) + "x\n"));
+    }
+
+    @Test
+    public void testLongQuote()
+    {
+        final int lines = 5000;
+        final String html = blockQuotes(new ConversionContext(), "> A *line*\n".repeat(lines));
+
+        assertEquals(1, count(html, "<blockquote>"));
+        assertEquals(lines, count(html, "A <em>line</em>"));
+    }
+
+    @Test
+    public void testMaxQuoteLevel()
+    {
+        final ConversionContext context = new ConversionContext();
+        context.setMaxQuoteLevel(2);
+
+        final String html = blockQuotes(context, "> > > > x\n");
+
+        assertEquals(2, count(html, "<blockquote>"));
+        assertEquals(0, context.getQuoteLevel());
+
+        context.setMaxQuoteLevel(0);
+        assertEquals("> x\n", blockQuotes(context, "> x\n"));
+    }
+
+    @Test
+    public void testNestedQuotes()
+    {
+        assertEquals("<blockquote>\n  <p>Outer</p>\n  \n  <blockquote>\n    <p>Inner</p>\n"
+                + "  </blockquote>\n</blockquote>\n",
+                MarkdownProcessor.convert("> Outer\n>\n> > Inner\n"));
+    }
+}
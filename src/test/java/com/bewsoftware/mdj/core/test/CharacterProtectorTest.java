@@ -7,7 +7,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  *
@@ -33,6 +35,61 @@ public class CharacterProtectorTest
         assertEquals("<h4>Warnemünde</h4>", characterProtector.decode(encoded));
     }
 
+    @Test
+    public void testDecodeAll()
+    {
+        final String star = characterProtector.encode("*");
+        final String html = characterProtector.encode("<br/>");
+        final StringBuilder sb = new StringBuilder();
+
+        assertTrue(characterProtector.decodeAll("a" + star + star + "b " + html + "\n" + star, sb));
+        assertEquals("a**b <br/>\n*", sb.toString());
+
+        sb.setLength(0);
+        assertFalse(characterProtector.decodeAll("no tokens, just a longWordOfMoreThanTwentyChars", sb));
+        assertEquals("no tokens, just a longWordOfMoreThanTwentyChars", sb.toString());
+    }
+
+    @Test
+    public void testEncodeConcurrently() throws InterruptedException
+    {
+        final int literals = 2000;
+        final String[][] tokens = new String[4][literals];
+        final Thread[] threads = new Thread[tokens.length];
+
+        for (int t = 0; t < threads.length; t++)
+        {
+            final String[] mine = tokens[t];
+
+            threads[t] = new Thread(() ->
+            {
+                for (int i = 0; i < literals; i++)
+                {
+                    mine[i] = characterProtector.encode("literal " + i);
+                }
+            });
+            threads[t].start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(literals, characterProtector.getAllEncodedTokens().size());
+
+        for (int i = 0; i < literals; i++)
+        {
+            assertTrue(tokens[0][i].matches(CharacterProtector.FIND_ENCODED));
+            assertEquals("literal " + i, characterProtector.decode(tokens[0][i]));
+
+            for (int t = 1; t < tokens.length; t++)
+            {
+                assertEquals(tokens[0][i], tokens[t][i]);
+            }
+        }
+    }
+
     @Test
     public void testGetAllEncodedTokens()
     {
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.MultiLiteralReplacer;
+import com.bewsoftware.mdj.core.PipelineListener;
+import com.bewsoftware.mdj.core.plugins.EncodeCode;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Each conversion has its own state.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class ConversionContextTest
+{
+    private static final String DOCUMENT = ""
+            + "- [link one] and *some* text\n"
+            + "- [link two]! and `code`\n"
+            + "\n"
+            + "> A quote with [link one].\n"
+            + "\n"
+            + "[link one]: http://example.com/one \"One\"\n"
+            + "[link two]: http://example.com/two_2\n";
+
+    @Test
+    public void testConcurrentConversions() throws InterruptedException, ExecutionException
+    {
+        final String expected = MarkdownProcessor.convert(DOCUMENT);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<String>> results = new ArrayList<>();
+
+        try
+        {
+            for (int i = 0; i < 200; i++)
+            {
+                results.add(executor.submit(() -> MarkdownProcessor.convert(DOCUMENT)));
+            }
+
+            for (Future<String> result : results)
+            {
+                assertEquals(expected, result.get());
+            }
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testForParagraph()
+    {
+        final ConversionContext context = new ConversionContext();
+        context.incrementQuoteLevel();
+        context.setParagraphExecutor(Runnable::run);
+        context.setPipelineListener(new PipelineListener()
+        {
+        });
+
+        final ConversionContext paragraph = context.forParagraph();
+
+        assertEquals(1, paragraph.getQuoteLevel());
+        assertNull(paragraph.getParagraphExecutor());
+        assertNull(paragraph.getPipelineListener());
+        assertEquals(context.getTarget(), paragraph.getTarget());
+        assertSame(context.getCharProtector(), paragraph.getCharProtector());
+
+        paragraph.incrementQuoteLevel();
+        assertEquals(1, context.getQuoteLevel());
+    }
+
+    @Test
+    public void testLinkDefinitionsDoNotLeak()
+    {
+        assertEquals("<p><a href=\"http://example.com\">foo</a></p>\n",
+                MarkdownProcessor.convert("[foo]\n\n[foo]: http://example.com\n"));
+        assertEquals("<p>[foo]</p>\n", MarkdownProcessor.convert("[foo]\n"));
+    }
+
+    @Test
+    public void testReplacersAreBuiltOnce()
+    {
+        final ConversionContext context = new ConversionContext();
+        final MultiLiteralReplacer replacer = context.getReplacer(EncodeCode.class,
+                charProtector -> new MultiLiteralReplacer().add("*", charProtector.encode("*")));
+
+        assertSame(replacer, context.getReplacer(EncodeCode.class, charProtector -> null));
+        assertNotSame(replacer, new ConversionContext().getReplacer(EncodeCode.class,
+                charProtector -> new MultiLiteralReplacer()));
+    }
+}
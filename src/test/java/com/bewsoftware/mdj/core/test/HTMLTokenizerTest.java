@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.core.HTMLTokenizer;
+import com.bewsoftware.mdj.core.TextEditor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The tokens found by {@link HTMLTokenizer}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class HTMLTokenizerTest
+{
+    private static List<String> tokenize(final String text)
+    {
+        final List<String> tokens = new ArrayList<>();
+        new HTMLTokenizer(text).forEachRemaining(token -> tokens.add(token.toString()));
+        return tokens;
+    }
+
+    @Test
+    public void testComments()
+    {
+        assertEquals(List.of("text: a ", "tag: <!-- b -- c -->", "text:  d"),
+                tokenize("a <!-- b -- c --> d"));
+
+        // A run of comments is preferred to stopping at the first '>'.
+        assertEquals(List.of("tag: <!-- a -- --> b -->"), tokenize("<!-- a -- --> b -->"));
+
+        // Not a comment, so it is read as a tag.
+        assertEquals(List.of("tag: <!DOCTYPE html>", "text: \n"), tokenize("<!DOCTYPE html>\n"));
+        assertEquals(List.of("tag: <!--->"), tokenize("<!--->"));
+    }
+
+    @Test
+    public void testNestedTags()
+    {
+        assertEquals(List.of("tag: <a title=\"<b>\">", "text: x", "tag: </a>"),
+                tokenize("<a title=\"<b>\">x</a>"));
+        assertEquals(List.of("tag: <a <b <c <d <e <f x>>>>>>"),
+                tokenize("<a <b <c <d <e <f x>>>>>>"));
+
+        // Seven deep is one too many for the outer tag.
+        assertEquals(List.of("text: <a ", "tag: <b <c <d <e <f <g x>>>>>>", "text: >"),
+                tokenize("<a <b <c <d <e <f <g x>>>>>>>"));
+    }
+
+    @Test
+    public void testNoTokens()
+    {
+        final HTMLTokenizer tokenizer = new HTMLTokenizer("");
+
+        assertFalse(tokenizer.hasNext());
+        assertThrows(NoSuchElementException.class, tokenizer::next);
+    }
+
+    @Test
+    public void testProcessingInstructions()
+    {
+        assertEquals(List.of("tag: <?php echo '>' ?>", "text:  x"), tokenize("<?php echo '>' ?> x"));
+        assertEquals(List.of("text: <?php x"), tokenize("<?php x"));
+    }
+
+    @Test
+    public void testTags()
+    {
+        assertEquals(List.of("text: a ", "tag: <b>", "text: c", "tag: </b>", "text:  d"),
+                tokenize("a <b>c</b> d"));
+        assertEquals(List.of("text: a < b, c <d and <$x"), tokenize("a < b, c <d and <$x"));
+        assertEquals(List.of("tag: <br/>"), tokenize("<br/>"));
+        assertEquals(tokenize("x<i>y</i>"),
+                new TextEditor("x<i>y</i>").tokenizeHTML().stream().map(Object::toString).toList());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.HashHTMLBlocks;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import com.bewsoftware.mdj.core.utils.CharacterProtector;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The blocks hashed by {@link HashHTMLBlocks}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class HashHTMLBlocksTest
+{
+    private static final Pattern TOKEN = Pattern.compile("[0-9a-zA-Z]{20}");
+
+    /**
+     * Run the plugin, and show each hashed block as {@code {block}}.
+     */
+    private static String hash(final String text)
+    {
+        final ConversionContext context = new ConversionContext();
+        final TextEditor editor = new HashHTMLBlocks().execute(context, new TextEditor(text));
+
+        return unhash(editor.toString(), context.getHtmlProtector());
+    }
+
+    private static String unhash(final String text, final CharacterProtector protector)
+    {
+        final Matcher m = TOKEN.matcher(text);
+        final StringBuilder sb = new StringBuilder();
+        int lastEnd = 0;
+
+        while (m.find())
+        {
+            final String block = protector.decode(m.group());
+
+            if (block != null)
+            {
+                sb.append(text, lastEnd, m.start()).append('{').append(unhash(block, protector)).append('}');
+                lastEnd = m.end();
+            }
+        }
+
+        return sb.append(text, lastEnd, text.length()).toString();
+    }
+
+    @Test
+    public void testDeeplyNestedBlocks()
+    {
+        final int depth = 1000;
+        final String text = "<div>x\n".repeat(depth) + "y</div>\n".repeat(depth);
+        final String hashed = hash(text);
+
+        assertEquals(depth, hashed.chars().filter(c -> c == '{').count());
+        assertEquals(text.replace("\n", ""), hashed.replaceAll("[{}\n]", ""));
+    }
+
+    @Test
+    public void testLiberalBlocks()
+    {
+        // The inner <div> is hashed first, and then the outer one.
+        assertEquals("\n\n{<div>x\n\n\n{<div>y\n<table>q\n</table>\nz</div>}\n\n\nw</div>}\n\n\n",
+                hash("<div>x\n<div>y\n<table>q\n</table>\nz</div>\nw</div>\n"));
+
+        // Never closed.
+        assertEquals("<div>x\n<div>y\n", hash("<div>x\n<div>y\n"));
+    }
+
+    @Test
+    public void testNestedBlocks()
+    {
+        assertEquals("\n\n{<div>\n    <div>\n    inner\n    </div>\n</div>}\n\n\n\n"
+                + "<p>a\n<hr/>\n\n\n\n{<hr/>}\n\n\n\n\n\n{<!-- c -->}\n\n\n",
+                hash("<div>\n    <div>\n    inner\n    </div>\n</div>\n\n<p>a\n<hr/>\n\n<hr/>\n\n<!-- c -->\n"));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.engine.IncrementalDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only the changed blocks of an {@link IncrementalDocument} are rendered
+ * again.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class IncrementalDocumentTest
+{
+    private static final String DOCUMENT = ""
+            + "# Header\n"
+            + "\n"
+            + "First paragraph, with a [link].\n"
+            + "\n"
+            + "Second paragraph.\n"
+            + "\n"
+            + "- one\n"
+            + "- two\n"
+            + "\n"
+            + "[link]: http://example.com/one\n";
+
+    @Test
+    public void testChangedChunkPrepared()
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 300; i++)
+        {
+            sb.append("Paragraph ").append(i).append(", with a [link].\n\n");
+        }
+
+        final String markdown = sb.append("[link]: http://example.com/one\n").toString();
+        final IncrementalDocument doc = new IncrementalDocument();
+        doc.update(markdown);
+
+        final String edited = markdown.replace("Paragraph 150,", "Paragraph 150!");
+
+        assertEquals(MarkdownProcessor.convert(edited), doc.update(edited));
+        assertEquals(1, doc.getRenderedCount());
+        assertTrue(doc.getPreparedLength() < 100, "prepared: " + doc.getPreparedLength());
+    }
+
+    @Test
+    public void testEdit()
+    {
+        final IncrementalDocument doc = new IncrementalDocument();
+
+        assertEquals(MarkdownProcessor.convert(DOCUMENT), doc.update(DOCUMENT));
+        assertEquals(3, doc.getRenderedCount());
+
+        final String edited = DOCUMENT.replace("Second", "Edited second");
+
+        assertEquals(MarkdownProcessor.convert(edited), doc.update(edited));
+        assertEquals(1, doc.getRenderedCount());
+
+        assertEquals(MarkdownProcessor.convert(edited), doc.update(edited));
+        assertEquals(0, doc.getRenderedCount());
+        assertEquals(doc.getHtml(), doc.update(edited));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        final IncrementalDocument doc = new IncrementalDocument();
+
+        assertEquals("\n", doc.update(""));
+        assertEquals("\n", doc.update(" \n"));
+        assertEquals(0, doc.getRenderedCount());
+    }
+
+    @Test
+    public void testLinkDefinitionAcrossChunks()
+    {
+        final IncrementalDocument doc = new IncrementalDocument();
+        final String markdown = "<div>\n</div>\n[link]:\n\n\t*\tt\n";
+
+        assertEquals(MarkdownProcessor.convert(markdown), doc.update(markdown));
+
+        final String edited = markdown.replace("\tt", "\tu");
+
+        assertEquals(MarkdownProcessor.convert(edited), doc.update(edited));
+    }
+
+    @Test
+    public void testLinkDefinitionChanged()
+    {
+        final IncrementalDocument doc = new IncrementalDocument();
+        doc.update(DOCUMENT);
+
+        final String edited = DOCUMENT.replace("/one", "/two");
+
+        assertEquals(MarkdownProcessor.convert(edited), doc.update(edited));
+        assertEquals(1, doc.getRenderedCount());
+
+        final String removed = edited.replace("[link]: http://example.com/two\n", "");
+
+        // The blank lines left behind change the text of the last block, too.
+        assertEquals(MarkdownProcessor.convert(removed), doc.update(removed));
+        assertEquals(2, doc.getRenderedCount());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.Lists;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The lists found by {@link Lists}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class ListsTest
+{
+    private static long count(final String html, final String tag)
+    {
+        return html.split(tag, -1).length - 1;
+    }
+
+    /**
+     * Run just the plugin, as the whole conversion would also spend its time
+     * on everything else.
+     */
+    private static String lists(final String text)
+    {
+        return new Lists().execute(new ConversionContext(), new TextEditor(text)).toString();
+    }
+
+    @Test
+    public void testCheckBoxesAndClasses()
+    {
+        assertEquals("<ul id=\"todo\" class=\"checkbox tasks\">\n"
+                + "<li><input type=\"checkbox\" checked>Done</li>\n"
+                + "<li class=\"later\"><input type=\"checkbox\" disabled>Not yet</li>\n"
+                + "<li class=\"plain\">Item</li>\n"
+                + "</ul>\n",
+                MarkdownProcessor.convert("[#todo][@tasks]\n- [x] Done\n- [ ]![@later] Not yet\n- [@plain] Item\n"));
+    }
+
+    @Test
+    public void testDeeplyNestedLists()
+    {
+        final int depth = 300;
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < depth; i++)
+        {
+            sb.append("    ".repeat(i)).append("- level ").append(i).append('\n');
+        }
+
+        final String html = lists(sb.toString());
+
+        assertEquals(depth, count(html, "<ul>"));
+        assertEquals(depth, count(html, "</li>"));
+    }
+
+    @Test
+    public void testEmptyItem()
+    {
+        assertEquals("<ul>\n<li></li>\n</ul>\n", MarkdownProcessor.convert("-  "));
+        assertEquals("<ul>\n<li>a\n<ul>\n<li></li></ul></li>\n</ul>\n",
+                MarkdownProcessor.convert("- a\n  -  \n"));
+    }
+
+    @Test
+    public void testLongList()
+    {
+        final int items = 5000;
+        final String html = lists("- An *item*\n".repeat(items));
+
+        assertEquals(1, count(html, "<ul>"));
+        assertEquals(items, count(html, "<li>An <em>item</em></li>"));
+    }
+
+    @Test
+    public void testLooseItems()
+    {
+        assertEquals("<ul>\n<li><p>Para one</p></li>\n<li><p>Para two</p></li>\n</ul>\n",
+                MarkdownProcessor.convert("- Para one\n\n- Para two\n"));
+    }
+
+    @Test
+    public void testNestedLists()
+    {
+        assertEquals("<ol>\n<li>One</li>\n<li>Two <em>em</em>\n"
+                + "<ul>\n<li>Sub a</li>\n<li>Sub b\n<ul>\n<li>Deep</li></ul></li></ul></li>\n"
+                + "<li>Three</li>\n</ol>\n",
+                MarkdownProcessor.convert("1. One\n2. Two *em*\n    - Sub a\n    - Sub b\n        - Deep\n3. Three\n"));
+
+        // Only within a list does a number start a list.
+        assertEquals("<p>Text\n8. not a list</p>\n\n<ul>\n<li>a\n<ol>\n<li>but this is</li></ol></li>\n</ul>\n",
+                MarkdownProcessor.convert("Text\n8. not a list\n\n- a\n    8. but this is\n"));
+    }
+
+    @Test
+    public void testSpansOfSubListsRunOnce()
+    {
+        //
+        // The span gamut of a tight item runs over its own text, and not
+        // over the HTML of its sub-lists. So a tag, or a code span, that is
+        // left open in the item is not closed from within a sub-list, and a
+        // sub-list is not run through the span gamut a second time.
+        //
+        assertEquals("<ul>\n<li>a <i_<em>b</em> \n<ul>\n<li>c ></li></ul></li>\n</ul>\n",
+                MarkdownProcessor.convert("- a <i_*b* \n  - c >\n"));
+        assertEquals("<ul>\n<li><code>a &lt;b</code>\n<ul>\n<li>`c></li></ul></li>\n</ul>\n",
+                MarkdownProcessor.convert("- `a <b`\n  - `c>\n"));
+        assertEquals("<ul>\n<li>a\n<ul>\n<li><em>*</em>b*</li></ul></li>\n</ul>\n",
+                MarkdownProcessor.convert("- a\n  - ***b*\n"));
+    }
+}
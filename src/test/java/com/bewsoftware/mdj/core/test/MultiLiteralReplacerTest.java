@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.core.MultiLiteralReplacer;
+import com.bewsoftware.mdj.core.TextEditor;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The {@link MultiLiteralReplacer} gives the same results as one
+ * {@link TextEditor#replaceAllLiteral(String, String) replaceAllLiteral()}
+ * per table entry.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class MultiLiteralReplacerTest
+{
+    /**
+     * The same table as 'EncodeCode' uses, with stand-ins for the tokens.
+     */
+    private static final String[] ENCODE_CODE =
+    {
+        "\\&", "T01", "--", "T02", "++", "T03", "-!", "T04", "+!", "T05",
+        "&", "&amp;", "<", "&lt;", ">", "&gt;", "*", "T06", "_", "T07",
+        "{", "T08", "}", "T09", "\\\\[", "T10", "[", "T10", "]", "T11",
+        "\\|", "T12", "\\", "T13"
+    };
+
+    @Test
+    public void testFirstEntryWins()
+    {
+        final MultiLiteralReplacer replacer = new MultiLiteralReplacer()
+                .add("ab", "1")
+                .add("a", "2")
+                .add("b", "3");
+
+        assertEquals("11", replacer.replaceAll("abab"));
+        assertEquals("32", replacer.replaceAll("ba"));
+        assertEquals("x1y", replacer.replaceAll("xaby"));
+        assertEquals("é", new MultiLiteralReplacer().add("è", "é").replaceAll("è"));
+    }
+
+    @Test
+    public void testNothingFound()
+    {
+        final TextEditor text = new TextEditor("plain text");
+
+        text.replaceAll(new MultiLiteralReplacer().add("*", "x"));
+        assertFalse(text.wasFound());
+        assertEquals("plain text", text.toString());
+
+        text.replaceAll(new MultiLiteralReplacer().add(" ", "_"));
+        assertTrue(text.wasFound());
+        assertEquals("plain_text", text.toString());
+    }
+
+    @Test
+    public void testSameAsSequentialReplacements()
+    {
+        final Random rnd = new Random(42);
+        final String chars = "\\&-+!<>*_{}[]|a ";
+        final MultiLiteralReplacer replacer = new MultiLiteralReplacer();
+
+        for (int i = 0; i < ENCODE_CODE.length; i += 2)
+        {
+            replacer.add(ENCODE_CODE[i], ENCODE_CODE[i + 1]);
+        }
+
+        for (int n = 0; n < 2000; n++)
+        {
+            final StringBuilder sb = new StringBuilder();
+
+            for (int i = rnd.nextInt(20); i > 0; i--)
+            {
+                sb.append(chars.charAt(rnd.nextInt(chars.length())));
+            }
+
+            final TextEditor expected = new TextEditor(sb);
+
+            for (int i = 0; i < ENCODE_CODE.length; i += 2)
+            {
+                expected.replaceAllLiteral(Pattern.quote(ENCODE_CODE[i]), ENCODE_CODE[i + 1]);
+            }
+
+            assertEquals(expected.toString(), replacer.replaceAll(sb), sb.toString());
+        }
+    }
+}
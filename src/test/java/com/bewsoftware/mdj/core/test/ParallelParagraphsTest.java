@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The span level processing of paragraphs, run on an executor.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class ParallelParagraphsTest
+{
+    private static String document(final int paragraphs)
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < paragraphs; i++)
+        {
+            //
+            // The earlier paragraphs are the longer ones, so they tend to
+            // finish last.
+            //
+            sb.append("Paragraph ").append(i).append(" has *some* text, `code` and [link one].\n"
+                    .repeat(paragraphs - i)).append("\n");
+        }
+
+        return sb.append("[link one]: http://example.com/one \"One\"\n").toString();
+    }
+
+    @Test
+    public void testCommonPool()
+    {
+        final String markdown = document(200);
+
+        assertEquals(MarkdownProcessor.convert(markdown),
+                MarkdownProcessor.convert(markdown, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testParagraphOrder()
+    {
+        final String markdown = document(50);
+        final Executor threadPerTask = task -> new Thread(task).start();
+
+        assertEquals(MarkdownProcessor.convert(markdown), MarkdownProcessor.convert(markdown, threadPerTask));
+    }
+
+    @Test
+    public void testSequential()
+    {
+        final String markdown = document(10);
+
+        assertEquals(MarkdownProcessor.convert(markdown), MarkdownProcessor.convert(markdown, (Executor) null));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.PipelineListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The plugins reported to a {@link PipelineListener}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class PipelineListenerTest
+{
+    private static final String DOCUMENT = ""
+            + "# Header\n"
+            + "\n"
+            + "- an *item*\n"
+            + "- another [link]\n"
+            + "\n"
+            + "A paragraph.\n"
+            + "\n"
+            + "[link]: http://example.com\n";
+
+    @Test
+    public void testCallsAreNested()
+    {
+        final Recorder recorder = new Recorder();
+
+        assertEquals(MarkdownProcessor.convert(DOCUMENT), MarkdownProcessor.convert(DOCUMENT, recorder));
+        assertTrue(recorder.open.isEmpty());
+        assertEquals(recorder.before, recorder.after);
+    }
+
+    @Test
+    public void testDepth()
+    {
+        final Recorder recorder = new Recorder();
+
+        MarkdownProcessor.convert(DOCUMENT, recorder);
+
+        assertTrue(recorder.calls.contains("1 CleanupMarkdownText"));
+        assertTrue(recorder.calls.contains("1 Lists"));
+        assertTrue(recorder.calls.contains("1 FormParagraphs"));
+        //
+        // The span gamut of a list item is run by Lists
+        //
+        assertTrue(recorder.calls.stream().anyMatch(call -> call.matches("[2-9] StrongEmAndBoldItalics")));
+    }
+
+    @Test
+    public void testLengths()
+    {
+        final Recorder recorder = new Recorder();
+
+        MarkdownProcessor.convert(DOCUMENT, recorder);
+
+        assertEquals("1 CleanupMarkdownText " + DOCUMENT.length(), recorder.first);
+    }
+
+    /**
+     * Checks that each call is closed in the order it was opened.
+     */
+    private static class Recorder implements PipelineListener
+    {
+        private final List<String> calls = new ArrayList<>();
+
+        private final Deque<String> open = new ArrayDeque<>();
+
+        private int after;
+
+        private int before;
+
+        private String first;
+
+        @Override
+        public void afterPlugin(
+                final String name,
+                final int inputLength,
+                final int outputLength,
+                final long nanos,
+                final int depth
+        )
+        {
+            after++;
+            assertEquals(depth + " " + name + " " + inputLength, open.pop());
+            assertTrue(nanos >= 0);
+            assertTrue(outputLength >= 0);
+        }
+
+        @Override
+        public void beforePlugin(final String name, final int inputLength, final int depth)
+        {
+            before++;
+            assertEquals(open.size() + 1, depth);
+            open.push(depth + " " + name + " " + inputLength);
+
+            if (first == null)
+            {
+                first = open.peek();
+            }
+
+            calls.add(depth + " " + name);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.plugins.utils.SpanScanner;
+import org.junit.jupiter.api.Test;
+
+import static com.bewsoftware.mdj.core.plugins.utils.SpanScanner.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The {@link SpanScanner} features, and the span gamut plugins they skip.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class SpanScannerTest
+{
+    @Test
+    public void testLinkDefinitionsAreStillProcessed()
+    {
+        // The link's url holds an '_' and a '&', neither of which are in the
+        // paragraph itself.
+        assertEquals("<p><a href=\"http://example.com/a_b?c=1&amp;d=2\">link</a> text</p>\n",
+                MarkdownProcessor.convert("[link] text\n\n[link]: http://example.com/a_b?c=1&d=2\n"));
+    }
+
+    @Test
+    public void testPlainText()
+    {
+        assertEquals(0, SpanScanner.scan("Just some plain text, with punctuation.\nOn two lines!\n"));
+        assertEquals("<p>Just some plain text.\nOn two lines!</p>\n",
+                MarkdownProcessor.convert("Just some plain text.\nOn two lines!\n"));
+    }
+
+    @Test
+    public void testScan()
+    {
+        assertEquals(AMPS_AND_ANGLES, SpanScanner.scan("a & b"));
+        assertEquals(AMPS_AND_ANGLES | AUTO_LINK | TAG, SpanScanner.scan("<b>"));
+        assertEquals(CODE, SpanScanner.scan("`code`"));
+        assertEquals(DEL_INS, SpanScanner.scan("-!del! +!ins!"));
+        assertEquals(EMPHASIS, SpanScanner.scan("*em* _i_"));
+        assertEquals(ESCAPE, SpanScanner.scan("\\."));
+        assertEquals(HARD_BREAK, SpanScanner.scan("line  \nbreak"));
+        assertEquals(IMAGE | LINK, SpanScanner.scan("![alt](url)"));
+        assertEquals(LINK, SpanScanner.scan("[text](url)"));
+        assertEquals(SUB_SUP, SpanScanner.scan("--sub-- ++sup++"));
+        assertEquals(0, SpanScanner.scan("a - b + c ! d  e\n"));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The streaming overloads of {@link MarkdownProcessor#convert(java.lang.String)
+ * convert()}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class StreamingConvertTest
+{
+    private static final String DOCUMENT = ""
+            + "# A *Header*\n"
+            + "\n"
+            + "Some text with a [link] and an_underscore.\n"
+            + "\n"
+            + "- item one\n"
+            + "- item **two**\n"
+            + "\n"
+            + "> A quote.\n"
+            + ">\n"
+            + "> > A nested quote.\n"
+            + "\n"
+            + "<div>\n"
+            + "Raw *HTML*\n"
+            + "</div>\n"
+            + "\n"
+            + "    code & <stuff>\n"
+            + "\n"
+            + "Last paragraph.  \n"
+            + "With a break.\n"
+            + "\n"
+            + "[link]: http://example.com/a_b \"Title\"\n";
+
+    @Test
+    public void testAppendableMatchesString() throws IOException
+    {
+        final List<String> appended = new ArrayList<>();
+        final StringBuilder sb = new StringBuilder();
+
+        MarkdownProcessor.convert(DOCUMENT, new Appendable()
+        {
+            @Override
+            public Appendable append(final CharSequence csq)
+            {
+                appended.add(csq.toString());
+                sb.append(csq);
+
+                return this;
+            }
+
+            @Override
+            public Appendable append(final CharSequence csq, final int start, final int end)
+            {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(final char c)
+            {
+                return append(String.valueOf(c));
+            }
+        });
+
+        assertEquals(MarkdownProcessor.convert(DOCUMENT), sb.toString());
+        assertTrue(appended.size() > 1, "Output was not written block by block");
+    }
+
+    @Test
+    public void testBlankInput() throws IOException
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        MarkdownProcessor.convert(" \n\t\n", sb);
+        assertEquals(MarkdownProcessor.convert(" \n\t\n"), sb.toString());
+    }
+
+    @Test
+    public void testOutputExceptionIsThrown()
+    {
+        assertThrows(IOException.class, () -> MarkdownProcessor.convert(DOCUMENT, new Appendable()
+        {
+            @Override
+            public Appendable append(final CharSequence csq) throws IOException
+            {
+                throw new IOException("Test");
+            }
+
+            @Override
+            public Appendable append(final CharSequence csq, final int start, final int end) throws IOException
+            {
+                throw new IOException("Test");
+            }
+
+            @Override
+            public Appendable append(final char c) throws IOException
+            {
+                throw new IOException("Test");
+            }
+        }));
+    }
+
+    @Test
+    public void testReaderWriterMatchesString() throws IOException
+    {
+        final StringWriter out = new StringWriter();
+
+        MarkdownProcessor.convert(new StringReader(DOCUMENT), out);
+        assertEquals(MarkdownProcessor.convert(DOCUMENT), out.toString());
+    }
+}
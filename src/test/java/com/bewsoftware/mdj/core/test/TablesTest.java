@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, 2021, 2025 Bradley Willcott
+ * https://github.com/bewillcott/bewsoftware-mdj
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  - Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  - Neither the name "Markdown" nor the names of its contributors may
+ *    be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * This software is provided by the copyright holders and contributors "as
+ * is" and any express or implied warranties, including, but not limited
+ * to, the implied warranties of merchantability and fitness for a
+ * particular purpose are disclaimed. In no event shall the copyright owner
+ * or contributors be liable for any direct, indirect, incidental, special,
+ * exemplary, or consequential damages (including, but not limited to,
+ * procurement of substitute goods or services; loss of use, data, or
+ * profits; or business interruption) however caused and on any theory of
+ * liability, whether in contract, strict liability, or tort (including
+ * negligence or otherwise) arising in any way out of the use of this
+ * software, even if advised of the possibility of such damage.
+ */
+package com.bewsoftware.mdj.core.test;
+
+
+import com.bewsoftware.mdj.MarkdownProcessor;
+import com.bewsoftware.mdj.core.TextEditor;
+import com.bewsoftware.mdj.core.plugins.Tables;
+import com.bewsoftware.mdj.core.plugins.utils.ConversionContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The tables built by {@link Tables}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 0.8.1
+ * @version 0.8.1
+ */
+public class TablesTest
+{
+    private static final String HEADER = "Intro\n\n| Name | Value |\n| :--- | ---: |\n";
+
+    private static long count(final String html, final String tag)
+    {
+        return html.split(tag, -1).length - 1;
+    }
+
+    /**
+     * Run just the plugin, as the whole conversion would also spend its time
+     * on everything else.
+     */
+    private static String tables(final String text)
+    {
+        final ConversionContext context = new ConversionContext();
+        final String encoded = new Tables().execute(context, new TextEditor(text)).toString();
+        final StringBuilder html = new StringBuilder();
+
+        context.getHtmlProtector().decodeAll(encoded, html);
+
+        return html.toString();
+    }
+
+    @Test
+    public void testAttributes()
+    {
+        final String html = MarkdownProcessor.convert("Intro\n\nThe caption [@cap]\n"
+                + "| A | B |[#top]\n| :-- | --: |\n| 1 | 2 |[@odd]\n| 3 | 4 |[]\n");
+
+        assertTrue(html.contains("<caption class=\"cap\">\nThe caption\n"));
+        assertTrue(html.contains("<tr id=\"top\">"));
+        assertEquals(2, count(html, "<td class=\"odd\""));
+        assertEquals(2, count(html, "<td style=\"border: 1px solid black;padding: 5px;"));
+    }
+
+    @Test
+    public void testCells()
+    {
+        final String html = tables(HEADER + "| *a | b* |\n| `c` | **d** |\n");
+
+        assertTrue(html.contains("\n*a\n"));
+        assertTrue(html.contains("\nb*\n"));
+        assertTrue(html.contains("\n<strong>d</strong>\n"));
+    }
+
+    @Test
+    public void testLargeTable()
+    {
+        final int rows = 20000;
+        final String html = tables(HEADER + "| row | *value* |\n".repeat(rows));
+
+        assertEquals(rows + 1, count(html, "<tr>"));
+        assertEquals(rows, count(html, "<em>value</em>"));
+    }
+
+    @Test
+    public void testManyPipesInHeader()
+    {
+        final String text = HEADER.substring(0, 7) + "| x ".repeat(200) + "\n| a | b |\n";
+
+        assertEquals(text, tables(text));
+    }
+
+    @Test
+    public void testShortRow()
+    {
+        final String html = tables(HEADER + "| 1 |\n|   |\n");
+
+        assertEquals(3, count(html, "<tr>"));
+        assertEquals(4, count(html, "<td"));
+    }
+}
@@ -34,10 +34,16 @@
  */
 package com.bewsoftware.mdj.core.test;
 
+import com.bewsoftware.mdj.core.AppendingReplacement;
+import com.bewsoftware.mdj.core.Replacement;
 import com.bewsoftware.mdj.core.TextEditor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @since 0.6.7
@@ -46,6 +52,23 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class TestTextEditor
 {
 
+    @Test
+    public void testCharSequence()
+    {
+        final TextEditor text = new TextEditor("one two");
+
+        assertEquals(7, text.length());
+        assertEquals('t', text.charAt(4));
+        assertEquals("two", text.subSequence(4, 7).toString());
+
+        // Too large for the spare buffer to be kept between passes.
+        final String large = "a b ".repeat(1 << 16);
+        text.setText(large);
+
+        assertEquals(large.replace(' ', '_'), text.replaceAll(" ", "_").toString());
+        assertEquals(large, text.replaceAll("_", " ").toString());
+    }
+
     @Test
     public void testDetabify()
     {
@@ -57,4 +80,72 @@ public class TestTextEditor
         assertEquals("     ", new TextEditor("\t ").detabify().toString());
         assertEquals("        ", new TextEditor("\t \t").detabify().toString());
     }
+
+    @Test
+    public void testReplaceAll()
+    {
+        final TextEditor text = new TextEditor("one two\nthree");
+
+        text.replaceAll("four", "4");
+        assertFalse(text.wasFound());
+        assertEquals("one two\nthree", text.toString());
+
+        text.replaceAll("^t", "T");
+        assertTrue(text.wasFound());
+        assertEquals("one two\nThree", text.toString());
+
+        text.replaceAll("(o)", "[$1]").replaceAllLiteral("e", "$1");
+        assertEquals("[o]n$1 tw[o]\nThr$1$1", text.toString());
+        assertTrue(text.contains("tw[o]"));
+        assertFalse(text.contains("two"));
+    }
+
+    @Test
+    public void testReplaceAllWithReplacement()
+    {
+        final Pattern pattern = Pattern.compile("\\d+");
+        final Replacement doubled = (Matcher m) -> String.valueOf(2 * Integer.parseInt(m.group()));
+        final AppendingReplacement bracketed = (Matcher m, StringBuilder sb) ->
+                sb.append('[').append(m.group()).append(']');
+
+        final TextEditor text = new TextEditor("a1 b22 c");
+
+        text.replaceAll(pattern, doubled);
+        assertEquals("a2 b44 c", text.toString());
+
+        text.replaceAll(pattern, bracketed);
+        assertTrue(text.wasFound());
+        assertEquals("a[2] b[44] c", text.toString());
+
+        final Matcher m = pattern.matcher("x7");
+        assertTrue(m.find());
+        assertEquals("[7]", bracketed.process(m));
+    }
+
+    @Test
+    public void testRewrite()
+    {
+        final TextEditor text = new TextEditor("abc");
+
+        text.rewrite((in, out) -> false);
+        assertFalse(text.wasFound());
+        assertEquals("abc", text.toString());
+
+        text.rewrite((in, out) ->
+        {
+            out.append(in).reverse();
+
+            return true;
+        });
+        assertTrue(text.wasFound());
+        assertEquals("cba", text.toString());
+    }
+
+    @Test
+    public void testTrim()
+    {
+        assertEquals("a b", new TextEditor(" \n\ta b \n").trim().toString());
+        assertEquals("", new TextEditor(" \n ").trim().toString());
+        assertEquals("a", new TextEditor("a").trim().toString());
+    }
 }